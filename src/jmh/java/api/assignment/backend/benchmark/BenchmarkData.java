@@ -0,0 +1,65 @@
+package api.assignment.backend.benchmark;
+
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+import api.assignment.backend.entity.Course;
+import api.assignment.backend.entity.Subtopic;
+import api.assignment.backend.entity.Topic;
+import api.assignment.backend.seed.SyntheticDataGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Benchmark inputs from {@link SyntheticDataGenerator} with its default seed, so every run sees the same data. */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static SyntheticDataGenerator generator(int courses) {
+        SyntheticDataProperties spec = new SyntheticDataProperties();
+        spec.setCourses(courses);
+        return new SyntheticDataGenerator(spec);
+    }
+
+    public static List<CourseDetailResponse> courses(int courses) {
+        SyntheticDataGenerator generator = generator(courses);
+        List<CourseDetailResponse> result = new ArrayList<>(courses);
+        for (int c = 0; c < courses; c++) {
+            result.add(generator.course(c, true));
+        }
+        return result;
+    }
+
+    /** The entity graph JPA would hand back for a course, with topics and subtopics in order. */
+    public static Course entity(CourseDetailResponse dto) {
+        Course course = Course.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .description(dto.getDescription())
+                .build();
+        for (int t = 0; t < dto.getTopics().size(); t++) {
+            TopicDto topicDto = dto.getTopics().get(t);
+            Topic topic = Topic.builder()
+                    .id(topicDto.getId())
+                    .title(topicDto.getTitle())
+                    .orderIndex(t)
+                    .course(course)
+                    .build();
+            for (int s = 0; s < topicDto.getSubtopics().size(); s++) {
+                SubtopicDto subtopicDto = topicDto.getSubtopics().get(s);
+                topic.getSubtopics().add(Subtopic.builder()
+                        .id(subtopicDto.getId())
+                        .title(subtopicDto.getTitle())
+                        .content(subtopicDto.getContent())
+                        .orderIndex(s)
+                        .topic(topic)
+                        .build());
+            }
+            course.getTopics().add(topic);
+        }
+        return course;
+    }
+}
@@ -0,0 +1,34 @@
+package api.assignment.backend.dto.course;
+
+import api.assignment.backend.benchmark.BenchmarkData;
+import api.assignment.backend.config.JacksonConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Serializing a full course detail (GET /api/courses/{id}) with the application's ObjectMapper. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourseDetailJsonBenchmark {
+
+    // picks a short and a long course from the generated catalog
+    @Param({"0", "7"})
+    int course;
+
+    private ObjectMapper objectMapper;
+    private CourseDetailResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        response = BenchmarkData.generator(course + 1).course(course, true);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
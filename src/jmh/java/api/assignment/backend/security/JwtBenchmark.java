@@ -0,0 +1,60 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing an access token, and resolving one both from the verified-token cache (the usual case
+ * for a client making several requests) and with a full signature check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final long EXPIRATION = TimeUnit.HOURS.toMillis(1);
+    // far more tokens than the uncached provider keeps, so nearly every lookup verifies
+    private static final int UNCACHED_TOKENS = 1024;
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider uncachedProvider;
+    private AuthenticatedUser user;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(SECRET, EXPIRATION, 10_000, new SimpleMeterRegistry());
+        uncachedProvider = new JwtTokenProvider(SECRET, EXPIRATION, 1, new SimpleMeterRegistry());
+        user = new AuthenticatedUser(42L, "learner42@synthetic.test", null, UUID.randomUUID().toString(),
+                Role.USER, null, null);
+        token = provider.generateToken(user);
+        tokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = provider.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return provider.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> resolveCached() {
+        return provider.resolvePrincipal(token);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> resolveVerified() {
+        next = (next + 1) % tokens.length;
+        return uncachedProvider.resolvePrincipal(tokens[next]);
+    }
+}
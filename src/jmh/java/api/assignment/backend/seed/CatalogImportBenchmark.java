@@ -0,0 +1,59 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.benchmark.BenchmarkData;
+import api.assignment.backend.benchmark.Stubs;
+import api.assignment.backend.config.JacksonConfig;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link DataLoader} spends on a catalog file apart from the database: streaming the JSON,
+ * building the entities and hashing every row. Persisting goes to a no-op EntityManager and
+ * the chunk transactions to a no-op transaction manager.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CatalogImportBenchmark {
+
+    @Param({"100"})
+    int courses;
+
+    private CatalogImporter importer;
+    private byte[] catalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("courses");
+            for (var course : BenchmarkData.courses(courses)) {
+                objectMapper.writeValue(json, course);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        catalog = out.toByteArray();
+
+        importer = new CatalogImporter(Stubs.transactionManager(), objectMapper, null, null, null, 500);
+        ReflectionTestUtils.setField(importer, "entityManager", Stubs.of(EntityManager.class, Map.of(
+                "persist", args -> null,
+                "getReference", args -> null)));
+    }
+
+    @Benchmark
+    public CatalogImporter.Result importCatalog() throws IOException {
+        return importer.importCatalog(new ByteArrayInputStream(catalog));
+    }
+}
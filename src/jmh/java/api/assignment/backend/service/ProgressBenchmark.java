@@ -0,0 +1,93 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.benchmark.BenchmarkData;
+import api.assignment.backend.benchmark.Stubs;
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.dto.enrollment.ProgressResponse;
+import api.assignment.backend.entity.Course;
+import api.assignment.backend.entity.Enrollment;
+import api.assignment.backend.entity.Subtopic;
+import api.assignment.backend.entity.SubtopicProgress;
+import api.assignment.backend.entity.Topic;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.EnrollmentRepository;
+import api.assignment.backend.repository.SubtopicProgressRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import api.assignment.backend.seed.SyntheticDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProgressService#getProgress} with the repositories answered from memory, so what's left
+ * is the aggregation: per-topic counts, the completed-item list and the percentage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProgressBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final long ENROLLMENT_ID = 7L;
+
+    @Param({"8", "40"})
+    int topicsPerCourse;
+
+    // share of the course's subtopics already completed
+    @Param({"0.1", "0.9"})
+    double completed;
+
+    private ProgressService progressService;
+
+    @Setup
+    public void setUp() {
+        SyntheticDataProperties spec = new SyntheticDataProperties();
+        spec.setCourses(1);
+        spec.setTopicsPerCourse(topicsPerCourse);
+        Course course = BenchmarkData.entity(new SyntheticDataGenerator(spec).course(0, false));
+
+        Map<String, Subtopic> subtopics = new HashMap<>();
+        for (Topic topic : course.getTopics()) {
+            for (Subtopic subtopic : topic.getSubtopics()) {
+                subtopics.put(subtopic.getId(), subtopic);
+            }
+        }
+        List<SubtopicProgress> progress = new ArrayList<>();
+        Instant at = Instant.parse("2025-01-01T00:00:00Z");
+        int done = (int) Math.round(subtopics.size() * completed);
+        for (Topic topic : course.getTopics()) {
+            for (Subtopic subtopic : topic.getSubtopics()) {
+                if (progress.size() < done) {
+                    progress.add(new SubtopicProgress((long) progress.size(), USER_ID, subtopic.getId(),
+                            at.plusSeconds(600L * progress.size())));
+                }
+            }
+        }
+        Enrollment enrollment = new Enrollment(ENROLLMENT_ID, USER_ID, course.getId(), at);
+
+        progressService = new ProgressService(
+                Stubs.of(SubtopicProgressRepository.class, Map.of(
+                        "findAllByUserIdAndSubtopicIdIn", args -> progress)),
+                Stubs.of(SubtopicRepository.class, Map.of(
+                        "findById", args -> Optional.ofNullable(subtopics.get((String) args[0])))),
+                Stubs.of(EnrollmentRepository.class, Map.of(
+                        "findById", args -> Optional.of(enrollment))),
+                Stubs.of(CourseRepository.class, Map.of(
+                        "findById", args -> Optional.of(course))),
+                null,
+                null,
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public ProgressResponse getProgress() {
+        return progressService.getProgress(USER_ID, ENROLLMENT_ID);
+    }
+}
@@ -0,0 +1,107 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.benchmark.BenchmarkData;
+import api.assignment.backend.benchmark.Stubs;
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+import api.assignment.backend.dto.search.SearchResponse;
+import api.assignment.backend.entity.Course;
+import api.assignment.backend.repository.CourseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search path taken without Elasticsearch: matching over the entity graph
+ * ({@code postgresSearch}) or over the catalog snapshot, plus snippet building on its own.
+ * "gravity" hits a lot of subtopic content, "Dynamics" mostly titles, "quaternion" nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    @Param({"100"})
+    int courses;
+
+    @Param({"gravity", "Dynamics", "quaternion"})
+    String query;
+
+    private SearchService entitySearch;
+    private SearchService snapshotSearch;
+    private CatalogSnapshotService snapshots;
+    private Path snapshotFile;
+    private String content;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<CourseDetailResponse> catalog = BenchmarkData.courses(courses);
+        List<Course> entities = catalog.stream().map(BenchmarkData::entity).toList();
+        CourseRepository courseRepository = Stubs.of(CourseRepository.class, Map.of(
+                "findAll", args -> entities,
+                "findCatalogVersion", args -> "benchmark"));
+        entitySearch = new SearchService(null, courseRepository, null, null,
+                new CatalogSnapshotService(courseRepository, null, "", false), Stubs.transactionManager(),
+                new SimpleMeterRegistry(), false);
+
+        snapshotFile = Files.createTempFile("catalog-benchmark", ".snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(snapshotFile)) {
+            // ids are zero-padded, so generation order is already id order
+            for (CourseDetailResponse course : catalog) {
+                writer.addCourse(course.getId(), course.getTitle(), course.getDescription());
+                for (TopicDto topic : course.getTopics()) {
+                    writer.addTopic(topic.getId(), topic.getTitle());
+                    for (SubtopicDto subtopic : topic.getSubtopics()) {
+                        writer.addSubtopic(subtopic.getId(), subtopic.getTitle(), subtopic.getContent());
+                    }
+                }
+            }
+            writer.finish("benchmark");
+        }
+        snapshots = new CatalogSnapshotService(courseRepository, null, snapshotFile.toString(), false);
+        snapshots.load();
+        if (snapshots.current() == null) {
+            throw new IllegalStateException("Benchmark snapshot was not loaded");
+        }
+        snapshotSearch = new SearchService(null, courseRepository, null, null, snapshots,
+                Stubs.transactionManager(), new SimpleMeterRegistry(), false);
+
+        // a page that contains the query, when there is one
+        content = catalog.stream()
+                .flatMap(course -> course.getTopics().stream())
+                .flatMap(topic -> topic.getSubtopics().stream())
+                .map(SubtopicDto::getContent)
+                .filter(text -> text.toLowerCase().contains(query.toLowerCase()))
+                .findFirst()
+                .orElse(catalog.get(0).getTopics().get(0).getSubtopics().get(0).getContent());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        snapshots.shutdown();
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public SearchResponse entityFallback() {
+        return entitySearch.search(query);
+    }
+
+    @Benchmark
+    public SearchResponse snapshot() {
+        return snapshotSearch.search(query);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String contentSnippet() {
+        return SearchService.contentSnippet(content, query);
+    }
+}
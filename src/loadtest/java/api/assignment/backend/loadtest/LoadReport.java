@@ -0,0 +1,144 @@
+package api.assignment.backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latencies (in microseconds) and errors per operation, recorded by every virtual user at once. */
+final class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Double> sqlPerRequest = new EnumMap<>(Operation.class);
+    // the first failure of each operation, so a failing run says why
+    private final Map<Operation, String> firstErrors = new ConcurrentHashMap<>();
+    private Duration elapsed = Duration.ZERO;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long nanos, String error) {
+        latencies.get(operation).recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (error != null) {
+            errors.get(operation).increment();
+            firstErrors.putIfAbsent(operation, error);
+        }
+    }
+
+    void finish(Duration elapsed, SqlStatementCounter sql) {
+        this.elapsed = elapsed;
+        for (Operation operation : Operation.values()) {
+            sqlPerRequest.put(operation, sql.perRequest(operation));
+        }
+    }
+
+    long requests() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    long errors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    double throughput() {
+        return requests() / Math.max(0.001, elapsed.toMillis() / 1000.0);
+    }
+
+    /** Budget violations, one line each; empty when the run is within every configured budget. */
+    List<String> check(LoadTestSettings settings) {
+        List<String> violations = new ArrayList<>();
+        Double minThroughput = settings.minThroughput();
+        if (minThroughput != null && throughput() < minThroughput) {
+            violations.add(String.format("throughput %.1f req/s is below %.1f", throughput(), minThroughput));
+        }
+        Double maxErrorRate = settings.maxErrorRate();
+        if (maxErrorRate != null && requests() > 0 && (double) errors() / requests() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f is above %.4f", (double) errors() / requests(), maxErrorRate));
+        }
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Duration p99Budget = settings.p99Budget(operation);
+            long p99 = histogram.getValueAtPercentile(99);
+            if (p99Budget != null && p99 > p99Budget.toNanos() / 1000) {
+                violations.add(String.format("%s p99 %.1f ms is above %d ms", operation.key(), p99 / 1000.0, p99Budget.toMillis()));
+            }
+            Double sqlBudget = settings.sqlBudget(operation);
+            double sql = sqlPerRequest.getOrDefault(operation, Double.NaN);
+            if (sqlBudget != null && sql > sqlBudget) {
+                violations.add(String.format("%s runs %.2f SQL statements per request, budget %.0f", operation.key(), sql, sqlBudget));
+            }
+        }
+        return violations;
+    }
+
+    String table() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-9s %-42s %9s %7s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "sql/req"));
+        double seconds = Math.max(0.001, elapsed.toMillis() / 1000.0);
+        for (Operation operation : Operation.values()) {
+            Histogram h = latencies.get(operation);
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            out.append(String.format("%-9s %-42s %9d %7d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    operation.key(), operation.route(), h.getTotalCount(), errors.get(operation).sum(),
+                    h.getTotalCount() / seconds, ms(h, 50), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0,
+                    sqlPerRequest.getOrDefault(operation, Double.NaN)));
+        }
+        out.append(String.format("total: %d requests, %d errors, %.1f req/s over %d s%n",
+                requests(), errors(), throughput(), elapsed.toSeconds()));
+        firstErrors.forEach((operation, error) -> out.append(String.format("first %s error: %s%n", operation.key(), error)));
+        return out.toString();
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram h = latencies.get(operation);
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("route", operation.route());
+            stats.put("requests", h.getTotalCount());
+            stats.put("errors", errors.get(operation).sum());
+            stats.put("p50Millis", ms(h, 50));
+            stats.put("p99Millis", ms(h, 99));
+            stats.put("p999Millis", ms(h, 99.9));
+            stats.put("maxMillis", h.getMaxValue() / 1000.0);
+            stats.put("sqlPerRequest", sqlPerRequest.getOrDefault(operation, Double.NaN));
+            stats.put("firstError", firstErrors.get(operation));
+            operations.put(operation.key(), stats);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        report.put("requests", requests());
+        report.put("errors", errors());
+        report.put("throughput", throughput());
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static double ms(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
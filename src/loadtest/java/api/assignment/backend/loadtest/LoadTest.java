@@ -0,0 +1,129 @@
+package api.assignment.backend.loadtest;
+
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.startup.StartupTasks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the whole application against an embedded PostgreSQL with a synthetic data set and no
+ * Elasticsearch (searches take the PostgreSQL fallback), drives the mix from
+ * {@code loadtest.properties} and fails if a budget is exceeded. The report is printed and
+ * written to {@code target/load-test-report.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "rate-limit.enabled=false",
+        "synthetic.target=database",
+        "spring.jpa.show-sql=false"
+})
+@Import(SqlStatementCounter.class)
+class LoadTest {
+
+    private static final LoadTestSettings SETTINGS = new LoadTestSettings();
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StartupTasks startupTasks;
+
+    @Autowired
+    private SyntheticDataProperties synthetic;
+
+    @Autowired
+    private SqlStatementCounter sql;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the embedded PostgreSQL", e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("synthetic.courses", SETTINGS::syntheticCourses);
+        registry.add("synthetic.users", SETTINGS::syntheticUsers);
+        // only the request threads change between the modes; the pools stay as configured
+        registry.add("spring.threads.virtual.enabled", SETTINGS::virtualThreads);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void mixedWorkloadStaysWithinBudget() throws Exception {
+        awaitReadiness(Duration.ofMinutes(5));
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Workload workload = new Workload(objectMapper, "http://localhost:" + port, SETTINGS.mix(),
+                synthetic.getCourses(), synthetic.getUsers(), synthetic.getTopicsPerCourse(),
+                synthetic.getSubtopicsPerTopic(), synthetic.getPassword());
+
+        workload.run(SETTINGS.concurrency(), SETTINGS.warmup(), null, 1);
+        sql.reset();
+        LoadReport report = new LoadReport();
+        long start = System.nanoTime();
+        workload.run(SETTINGS.concurrency(), SETTINGS.duration(), report, 2);
+        report.finish(Duration.ofNanos(System.nanoTime() - start), sql);
+
+        String threads = SETTINGS.virtualThreads() ? "virtual" : "platform";
+        System.out.println();
+        System.out.println("Load test: " + SETTINGS.concurrency() + " virtual users, " + synthetic.getCourses()
+                + " courses, " + synthetic.getUsers() + " learners, " + threads + " request threads");
+        System.out.print(report.table());
+        Path output = Path.of("target", "load-test-report.json");
+        Files.createDirectories(output.getParent());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("threads", threads);
+        json.putAll(report.toMap());
+        objectMapper.writeValue(output.toFile(), json);
+
+        List<String> violations = report.check(SETTINGS);
+        assertThat(violations).as("load test budgets (report in %s)", output).isEmpty();
+    }
+
+    private void awaitReadiness(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!startupTasks.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Startup tasks did not finish: " + startupTasks.describe());
+            }
+            Thread.sleep(200);
+        }
+        // a failed seed or synthetic load would only show up as a misleading report
+        startupTasks.describe().forEach((name, task) -> {
+            if (task instanceof Map<?, ?> details && "FAILED".equals(String.valueOf(details.get("state")))) {
+                throw new IllegalStateException("Startup task " + name + " failed: " + details.get("error"));
+            }
+        });
+    }
+}
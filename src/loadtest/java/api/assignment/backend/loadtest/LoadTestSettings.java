@@ -0,0 +1,99 @@
+package api.assignment.backend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/** {@code loadtest.properties}, with system properties of the same name taking precedence. */
+final class LoadTestSettings {
+
+    private final Properties properties = new Properties();
+
+    LoadTestSettings() {
+        try (InputStream in = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("loadtest.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+    }
+
+    int concurrency() {
+        return Integer.parseInt(get("loadtest.concurrency", "16"));
+    }
+
+    Duration warmup() {
+        return DurationStyle.detectAndParse(get("loadtest.warmup", "10s"));
+    }
+
+    Duration duration() {
+        return DurationStyle.detectAndParse(get("loadtest.duration", "30s"));
+    }
+
+    /** {@code platform} (Tomcat's thread pool) or {@code virtual} (spring.threads.virtual.enabled). */
+    boolean virtualThreads() {
+        String threads = get("loadtest.threads", "platform");
+        return switch (threads) {
+            case "platform" -> false;
+            case "virtual" -> true;
+            default -> throw new IllegalArgumentException(
+                    "loadtest.threads must be platform or virtual, not '" + threads + "'");
+        };
+    }
+
+    int syntheticCourses() {
+        return Integer.parseInt(get("loadtest.synthetic.courses", "50"));
+    }
+
+    int syntheticUsers() {
+        return Integer.parseInt(get("loadtest.synthetic.users", "500"));
+    }
+
+    Map<Operation, Integer> mix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            int weight = Integer.parseInt(get("loadtest.mix." + operation.key(), "0"));
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        return mix;
+    }
+
+    Double minThroughput() {
+        String value = get("loadtest.budget.min-throughput", null);
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    Double maxErrorRate() {
+        String value = get("loadtest.budget.max-error-rate", null);
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    Duration p99Budget(Operation operation) {
+        String value = get("loadtest.budget." + operation.key() + ".p99", null);
+        return value == null ? null : DurationStyle.detectAndParse(value);
+    }
+
+    Double sqlBudget(Operation operation) {
+        String value = get("loadtest.budget." + operation.key() + ".sql-per-request", null);
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    private String get(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,25 @@
+package api.assignment.backend.loadtest;
+
+/** The requests in the mix, each labelled with the route it exercises. */
+enum Operation {
+    BROWSE("GET /api/courses"),
+    COURSE("GET /api/courses/{courseId}"),
+    SEARCH("GET /api/search"),
+    ENROLL("POST /api/courses/{courseId}/enroll"),
+    COMPLETE("POST /api/subtopics/{subtopicId}/complete"),
+    PROGRESS("GET /api/enrollments/{enrollmentId}/progress");
+
+    private final String route;
+
+    Operation(String route) {
+        this.route = route;
+    }
+
+    String key() {
+        return name().toLowerCase();
+    }
+
+    String route() {
+        return route;
+    }
+}
@@ -0,0 +1,76 @@
+package api.assignment.backend.loadtest;
+
+import api.assignment.backend.sql.SqlCapture;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements Hibernate prepares while serving each request, through the
+ * application's own {@link SqlCapture}. The load driver tags its requests with
+ * {@link #OPERATION_HEADER}; statements run on the request thread are added to that operation's
+ * total.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class SqlStatementCounter {
+
+    static final String OPERATION_HEADER = "X-Load-Operation";
+
+    private final Map<Operation, LongAdder> statements = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> requests = new EnumMap<>(Operation.class);
+
+    SqlStatementCounter() {
+        for (Operation operation : Operation.values()) {
+            statements.put(operation, new LongAdder());
+            requests.put(operation, new LongAdder());
+        }
+    }
+
+    /** Statements per request for the operation since the last reset, or NaN if it saw no requests. */
+    double perRequest(Operation operation) {
+        long n = requests.get(operation).sum();
+        return n == 0 ? Double.NaN : (double) statements.get(operation).sum() / n;
+    }
+
+    void reset() {
+        statements.values().forEach(LongAdder::reset);
+        requests.values().forEach(LongAdder::reset);
+    }
+
+    @Bean
+    FilterRegistrationBean<OncePerRequestFilter> sqlStatementCountingFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                String header = request.getHeader(OPERATION_HEADER);
+                if (header == null) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                Operation operation = Operation.valueOf(header);
+                SqlCapture capture = SqlCapture.start();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    capture.close();
+                    statements.get(operation).add(capture.statements());
+                    requests.get(operation).increment();
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
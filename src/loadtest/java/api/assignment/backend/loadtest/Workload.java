@@ -0,0 +1,196 @@
+package api.assignment.backend.loadtest;
+
+import api.assignment.backend.seed.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop driver: each virtual user logs in as one of the synthetic learners and then sends
+ * requests from the weighted mix back to back until the deadline. Completions and progress views
+ * go to the enrollments that user created during the run.
+ */
+final class Workload {
+
+    private static final String[] SEARCH_TERMS = {"velocity", "matrix", "recursion", "Dynamics", "integral", "quaternion"};
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Operation[] deck;
+    private final int courses;
+    private final int users;
+    private final int topicsPerCourse;
+    private final int subtopicsPerTopic;
+    private final String password;
+
+    Workload(ObjectMapper objectMapper, String baseUrl, Map<Operation, Integer> mix, int courses, int users,
+             int topicsPerCourse, int subtopicsPerTopic, String password) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.courses = courses;
+        this.users = users;
+        this.topicsPerCourse = topicsPerCourse;
+        this.subtopicsPerTopic = subtopicsPerTopic;
+        this.password = password;
+        // one entry per unit of weight, so a uniform pick follows the mix
+        List<Operation> deck = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                deck.add(operation);
+            }
+        });
+        this.deck = deck.toArray(Operation[]::new);
+    }
+
+    /** Runs {@code concurrency} virtual users until {@code duration} has passed; recorded into {@code report} if given. */
+    void run(int concurrency, Duration duration, LoadReport report, long seed) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> users = new ArrayList<>();
+            long deadline = System.nanoTime() + duration.toNanos();
+            for (int u = 0; u < concurrency; u++) {
+                VirtualUser user = new VirtualUser(u, new SplittableRandom(seed * 31 + u));
+                users.add(pool.submit(() -> {
+                    user.start();
+                    while (System.nanoTime() < deadline) {
+                        user.next(report);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private final class VirtualUser {
+        private final int index;
+        private final SplittableRandom random;
+        private final List<Long> enrollmentIds = new ArrayList<>();
+        private final List<Integer> enrolledCourses = new ArrayList<>();
+        private String token;
+
+        VirtualUser(int index, SplittableRandom random) {
+            this.index = index;
+            this.random = random;
+        }
+
+        void start() throws IOException, InterruptedException {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "email", SyntheticDataGenerator.email(index % users), "password", password));
+            HttpResponse<String> response = http.send(request("/api/auth/login", null)
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+            }
+            token = objectMapper.readTree(response.body()).get("token").asText();
+            // completions and progress views need an enrollment of this run
+            for (int attempt = 0; attempt < 20 && enrollmentIds.isEmpty(); attempt++) {
+                enroll(null);
+            }
+        }
+
+        void next(LoadReport report) throws IOException, InterruptedException {
+            Operation operation = deck[random.nextInt(deck.length)];
+            if (enrollmentIds.isEmpty() && (operation == Operation.COMPLETE || operation == Operation.PROGRESS)) {
+                operation = Operation.ENROLL;
+            }
+            switch (operation) {
+                case BROWSE -> send(operation, request("/api/courses", operation).GET(), report);
+                case COURSE -> send(operation, request("/api/courses/" + randomCourse(), operation).GET(), report);
+                case SEARCH -> send(operation, request("/api/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)],
+                        operation).GET(), report);
+                case ENROLL -> enroll(report);
+                case COMPLETE -> {
+                    int course = enrolledCourses.get(random.nextInt(enrolledCourses.size()));
+                    String subtopicId = SyntheticDataGenerator.subtopicId(course, random.nextInt(topicsPerCourse),
+                            random.nextInt(subtopicsPerTopic));
+                    send(operation, request("/api/subtopics/" + subtopicId + "/complete", operation)
+                            .POST(HttpRequest.BodyPublishers.noBody()), report);
+                }
+                case PROGRESS -> send(operation, request("/api/enrollments/"
+                        + enrollmentIds.get(random.nextInt(enrollmentIds.size())) + "/progress", operation).GET(), report);
+            }
+        }
+
+        // 409 (already enrolled) is an expected answer, not an error
+        private void enroll(LoadReport report) throws IOException, InterruptedException {
+            int course = random.nextInt(courses);
+            HttpResponse<String> response = send(Operation.ENROLL, request("/api/courses/"
+                    + SyntheticDataGenerator.courseId(course) + "/enroll", Operation.ENROLL)
+                    .POST(HttpRequest.BodyPublishers.noBody()), report, 201, 409);
+            if (response != null && response.statusCode() == 201) {
+                JsonNode enrollment = objectMapper.readTree(response.body());
+                enrollmentIds.add(enrollment.get("enrollmentId").asLong());
+                enrolledCourses.add(course);
+            }
+        }
+
+        private String randomCourse() {
+            return SyntheticDataGenerator.courseId(random.nextInt(courses));
+        }
+
+        private HttpRequest.Builder request(String path, Operation operation) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            if (operation != null) {
+                builder.header(SqlStatementCounter.OPERATION_HEADER, operation.name());
+            }
+            return builder;
+        }
+
+        private HttpResponse<String> send(Operation operation, HttpRequest.Builder request, LoadReport report,
+                                          int... expected) throws InterruptedException {
+            long start = System.nanoTime();
+            HttpResponse<String> response = null;
+            String error = null;
+            try {
+                response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                if (!isExpected(response.statusCode(), expected)) {
+                    String body = response.body();
+                    error = response.statusCode() + " " + (body.length() > 200 ? body.substring(0, 200) : body);
+                }
+            } catch (IOException e) {
+                error = e.toString();
+            }
+            long nanos = System.nanoTime() - start;
+            if (report != null) {
+                report.record(operation, nanos, error);
+            }
+            return response;
+        }
+
+        private boolean isExpected(int status, int[] expected) {
+            if (expected.length == 0) {
+                return status == 200;
+            }
+            for (int e : expected) {
+                if (status == e) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package api.assignment.backend.bulkhead;
+
+import api.assignment.backend.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One class of endpoints: at most {@code maxConcurrent} of its requests run at once, and
+ * (optionally) they hold at most {@code maxConnections} of the shared JDBC pool's connections.
+ * A bulkhead that can't take another request rejects it at once; connections are waited for up
+ * to {@code bulkhead.connection-wait}, since a request that got in should normally finish.
+ * <p>
+ * {@link BulkheadFilter} binds the request's bulkhead to its thread, which is how
+ * {@link BulkheadDataSource} knows whose connections it is handing out.
+ */
+public class Bulkhead {
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Semaphore calls;
+    private final int maxConnections;
+    // null = connections aren't capped
+    private final Semaphore connections;
+    private final long connectionWaitNanos;
+    private final long retryAfterSeconds;
+    private final Counter callRejections;
+    private final Counter connectionRejections;
+
+    public Bulkhead(String name, int maxConcurrent, Integer maxConnections, Duration connectionWait,
+                    Duration retryAfter, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.calls = new Semaphore(maxConcurrent);
+        this.maxConnections = maxConnections != null ? maxConnections : 0;
+        this.connections = maxConnections != null ? new Semaphore(maxConnections, true) : null;
+        this.connectionWaitNanos = connectionWait.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        Gauge.builder("bulkhead.calls.active", this, Bulkhead::activeCalls)
+                .description("Requests running inside the bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.calls.max", this, b -> b.maxConcurrent)
+                .description("Requests the bulkhead lets run at once")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.utilization", this, b -> (double) b.activeCalls() / b.maxConcurrent)
+                .description("Share of the bulkhead's concurrency limit in use")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        if (connections != null) {
+            Gauge.builder("bulkhead.connections.active", this, Bulkhead::activeConnections)
+                    .description("JDBC connections held by the bulkhead's requests")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.connections.max", this, b -> b.maxConnections)
+                    .description("JDBC connections the bulkhead's requests may hold at once")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+        }
+        this.callRejections = rejections(meterRegistry, name, "concurrency");
+        this.connectionRejections = connections != null ? rejections(meterRegistry, name, "connections") : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** The bulkhead of the request running on this thread, if any. */
+    static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs tasks given to {@code executor} inside the calling thread's bulkhead, so connections
+     * they take count against its cap. Call it on the request thread, when the work is set up.
+     */
+    public static Executor inheriting(Executor executor) {
+        Bulkhead bulkhead = CURRENT.get();
+        if (bulkhead == null) {
+            return executor;
+        }
+        return task -> executor.execute(() -> {
+            CURRENT.set(bulkhead);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        });
+    }
+
+    /** Takes a request slot and binds the bulkhead to this thread; false (and counted) when full. */
+    boolean tryEnter() {
+        if (!calls.tryAcquire()) {
+            callRejections.increment();
+            return false;
+        }
+        CURRENT.set(this);
+        return true;
+    }
+
+    void exit() {
+        unbind();
+        release();
+    }
+
+    /** Unbinds the bulkhead from this thread but keeps the request's slot (async handoff). */
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    /** Gives back the request's slot. */
+    void release() {
+        calls.release();
+    }
+
+    boolean limitsConnections() {
+        return connections != null;
+    }
+
+    void acquireConnection() {
+        boolean acquired;
+        try {
+            acquired = connections.tryAcquire(connectionWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            connectionRejections.increment();
+            throw new BulkheadFullException("No database connection free for " + name + " requests, retry later",
+                    retryAfterSeconds);
+        }
+    }
+
+    void releaseConnection() {
+        connections.release();
+    }
+
+    long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private int activeCalls() {
+        return maxConcurrent - calls.availablePermits();
+    }
+
+    private int activeConnections() {
+        return maxConnections - connections.availablePermits();
+    }
+
+    private static Counter rejections(MeterRegistry registry, String name, String reason) {
+        return Counter.builder("bulkhead.rejections")
+                .description("Requests turned away with a 503 because the bulkhead was full")
+                .tags("bulkhead", name, "reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package api.assignment.backend.bulkhead;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Carves the shared pool into per-bulkhead shares: a connection handed out on a thread whose
+ * request is in a {@link Bulkhead} with a connection cap takes one of its permits until the
+ * connection is closed (returned to the pool). Connections taken outside a request, or by an
+ * uncapped bulkhead, pass straight through. Over the cap it throws
+ * {@link api.assignment.backend.exception.BulkheadFullException}, which ends up as a 503.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    public BulkheadDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return obtainTargetDataSource().getConnection();
+        }
+        return guarded(bulkhead, () -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+        return guarded(bulkhead, () -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection guarded(Bulkhead bulkhead, ConnectionSource source) throws SQLException {
+        bulkhead.acquireConnection();
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new PermitReleasingHandler(connection, bulkhead));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private static final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private Bulkhead bulkhead;
+
+        PermitReleasingHandler(Connection target, Bulkhead bulkhead) {
+            this.target = target;
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    // Connection.close() may be called more than once; release only on the first
+                    try {
+                        target.close();
+                    } finally {
+                        if (bulkhead != null) {
+                            bulkhead.releaseConnection();
+                            bulkhead = null;
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package api.assignment.backend.bulkhead;
+
+import api.assignment.backend.config.BulkheadProperties;
+import api.assignment.backend.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts each request into the {@link Bulkhead} of the first {@code bulkhead.routes} entry it
+ * matches, or answers 503 at once when that bulkhead is full. Runs before Spring Security, so a
+ * rejected request costs no token check or database work. An async request keeps its slot until
+ * the async cycle completes; only the thread binding ends when the handler hands off.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<CompiledRoute> routes;
+    private final ObjectMapper errorWriter = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public BulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+        properties.getLimits().forEach((name, limits) -> bulkheads.put(name, new Bulkhead(name,
+                limits.getMaxConcurrent(), limits.getMaxConnections(), properties.getConnectionWait(),
+                properties.getRetryAfter(), meterRegistry)));
+        this.routes = properties.getRoutes().stream()
+                .map(r -> {
+                    Bulkhead bulkhead = bulkheads.get(r.getBulkhead());
+                    if (bulkhead == null) {
+                        throw new IllegalStateException("bulkhead.routes: no limits for bulkhead '"
+                                + r.getBulkhead() + "' (" + r.getPattern() + ")");
+                    }
+                    return new CompiledRoute(PathPatternParser.defaultInstance.parse(r.getPattern()),
+                            r.getMethod(), bulkhead);
+                })
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = match(request);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.tryEnter()) {
+            reject(response, bulkhead);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                bulkhead.unbind();
+                exitOnCompletion(request, bulkhead);
+            } else {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    // the async cycle can't complete before this dispatch returns, so the listener never misses it
+    private static void exitOnCompletion(HttpServletRequest request, Bulkhead bulkhead) {
+        ReleaseListener listener = new ReleaseListener(bulkhead);
+        try {
+            request.getAsyncContext().addListener(listener);
+        } catch (IllegalStateException e) {
+            listener.release();
+            throw e;
+        }
+    }
+
+    private Bulkhead match(HttpServletRequest request) {
+        PathContainer path = null;
+        for (CompiledRoute candidate : routes) {
+            if (candidate.method() != null && !candidate.method().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (candidate.pattern().matches(path)) {
+                return candidate.bulkhead();
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Bulkhead bulkhead) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        errorWriter.writeValue(response.getOutputStream(), new ErrorResponse("Service Unavailable",
+                "Too many " + bulkhead.getName() + " requests in progress, retry later", Instant.now()));
+    }
+
+    private record CompiledRoute(PathPattern pattern, String method, Bulkhead bulkhead) {}
+
+    private static final class ReleaseListener implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseListener(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        // a timeout is followed by an error dispatch or completion, which releases the slot
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        // a new async cycle drops the listeners of the previous one
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
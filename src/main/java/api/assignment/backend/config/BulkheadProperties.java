@@ -0,0 +1,45 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    // how long a request waits for one of its bulkhead's connections before it gets a 503
+    private Duration connectionWait = Duration.ofSeconds(2);
+
+    // Retry-After on rejected requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // by bulkhead name
+    private Map<String, Limits> limits = new LinkedHashMap<>();
+
+    // first matching route wins; unmatched requests are not limited
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Limits {
+        // requests inside the bulkhead at once; the rest are rejected straight away
+        private int maxConcurrent;
+        // JDBC connections its requests may hold at once, out of the shared pool; null = no cap
+        private Integer maxConnections;
+    }
+
+    @Data
+    public static class Route {
+        private String pattern;
+        // null matches every method
+        private String method;
+        private String bulkhead;
+    }
+}
@@ -22,12 +22,19 @@ public class ElasticsearchConfig {
     @Value("${elasticsearch.apikey:}")
     private String apiKey;
 
+    // the client's own default is 10 per host; with virtual threads that becomes the real cap
+    @Value("${elasticsearch.max-connections:10}")
+    private int maxConnections;
+
     @Bean
     public ElasticsearchClient elasticsearchClient() {
         try {
             var httpHost = HttpHost.create(esUrl);
 
-            var restClientBuilder = RestClient.builder(httpHost);
+            var restClientBuilder = RestClient.builder(httpHost)
+                    .setHttpClientConfigCallback(http -> http
+                            .setMaxConnTotal(maxConnections)
+                            .setMaxConnPerRoute(maxConnections));
 
             if (apiKey != null && !apiKey.isBlank()) {
                 restClientBuilder.setDefaultHeaders(new Header[]{
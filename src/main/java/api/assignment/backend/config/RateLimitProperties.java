@@ -0,0 +1,39 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // buckets untouched for this long are dropped (never before they would have refilled anyway)
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // failed login attempts per account (normalized email) and client address; null = off
+    private Limit loginPerAccount;
+
+    // first matching route wins
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        // null matches every method
+        private String method;
+        private Limit perIp;
+        private Limit perUser;
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
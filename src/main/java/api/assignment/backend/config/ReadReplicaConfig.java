@@ -0,0 +1,74 @@
+package api.assignment.backend.config;
+
+import api.assignment.backend.datasource.ReadYourWrites;
+import api.assignment.backend.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * With {@code datasource.replica.url} set, replaces Boot's single pool with a primary pool
+ * ({@code spring.datasource}, {@code spring.datasource.hikari}) and a replica pool
+ * ({@code datasource.replica}, {@code datasource.replica.hikari}).
+ * <p>
+ * The {@code DataSource} everyone gets is a {@link LazyConnectionDataSourceProxy}: it hands out a
+ * connection handle straight away and only picks a pool at the first statement, by which time
+ * the transaction manager has marked it read-only or not. Read-only transactions
+ * ({@code @Transactional(readOnly = true)}, including the inherited Spring Data finders such as
+ * {@code findById}) go to the replica;
+ * everything else, including schema updates and the COPY loaders, goes to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReplicaDataSourceProperties replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // picked up by the transaction manager (Boot applies TransactionExecutionListener beans)
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaDataSourceProperties replica) {
+        return new ReadYourWrites(replica.getReadYourWrites());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                readYourWrites, meterRegistry));
+        return dataSource;
+    }
+}
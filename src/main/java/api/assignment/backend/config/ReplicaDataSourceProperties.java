@@ -0,0 +1,25 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions. Unset url = no replica, everything goes to
+ * {@code spring.datasource}. Pool settings live under {@code datasource.replica.hikari}.
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private String url;
+
+    // default to the primary's
+    private String username;
+    private String password;
+
+    // after a user's write commits, their read-only transactions stay on the primary this long
+    // (0 = off); should cover the usual replication lag
+    private Duration readYourWrites = Duration.ofSeconds(2);
+}
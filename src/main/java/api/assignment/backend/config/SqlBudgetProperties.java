@@ -0,0 +1,40 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    // count statements per request at all (registers the Hibernate inspector and listener)
+    private boolean enabled = true;
+
+    // X-SQL-Statements / X-SQL-Time response headers; meant for dev
+    private boolean headers = false;
+
+    // sql.request.* meters
+    private boolean metrics = true;
+
+    private int maxStatements = 25;
+    private Duration maxJdbcTime = Duration.ofMillis(250);
+
+    // a shape run this many times in one over-budget request is logged as repeated
+    private int repeatedShapeThreshold = 3;
+
+    // first matching route wins; unset limits fall back to the defaults above
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        // null matches every method
+        private String method;
+        private Integer maxStatements;
+        private Duration maxJdbcTime;
+    }
+}
@@ -0,0 +1,38 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Shape of the synthetic data set. The same seed and sizes always produce the same ids, text and
+ * timestamps, so benchmark and load-test runs are comparable.
+ */
+@Data
+@ConfigurationProperties(prefix = "synthetic")
+public class SyntheticDataProperties {
+
+    public enum Target { NONE, DATABASE, JSON }
+
+    private Target target = Target.NONE;
+
+    // catalog file written when target is JSON (same format as seed_data/courses.json)
+    private String output = "synthetic-catalog.json";
+
+    // remove previously generated rows (syn-* ids, @synthetic.test users) before loading
+    private boolean reset = true;
+
+    private long seed = 42;
+
+    private int courses = 100;
+    private int topicsPerCourse = 8;
+    private int subtopicsPerTopic = 6;
+    private int minContentWords = 80;
+    private int maxContentWords = 600;
+
+    private int users = 1000;
+    private int enrollmentsPerUser = 3;
+    // mean fraction of an enrolled course's subtopics a learner completes
+    private double completionRate = 0.4;
+    // every generated user gets this password, so load tests can log in
+    private String password = "synthetic-password";
+}
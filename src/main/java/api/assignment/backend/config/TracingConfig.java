@@ -0,0 +1,72 @@
+package api.assignment.backend.config;
+
+import api.assignment.backend.trace.RequestTrace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/** The "handler" and "serialize" stages of {@link RequestTrace}; the filter itself is a component. */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig implements WebMvcConfigurer {
+
+    private static final String HANDLER_STAGE = TracingConfig.class.getName() + ".handlerStage";
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.setAttribute(HANDLER_STAGE, RequestTrace.stage("handler"));
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, @Nullable Exception ex) {
+                closeHandlerStage(request);
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                closeHandlerStage(request);
+            }
+        });
+    }
+
+    private static void closeHandlerStage(HttpServletRequest request) {
+        if (request.getAttribute(HANDLER_STAGE) instanceof RequestTrace.Stage stage) {
+            request.removeAttribute(HANDLER_STAGE);
+            stage.close();
+        }
+    }
+
+    // replaces Boot's JSON converter (same mapper) to time response serialization
+    @Bean
+    public JacksonJsonHttpMessageConverter jacksonJsonHttpMessageConverter(JsonMapper jsonMapper) {
+        return new JacksonJsonHttpMessageConverter(jsonMapper) {
+            @Override
+            protected void writeInternal(Object object, @Nullable ResolvableType resolvableType,
+                                         HttpOutputMessage outputMessage, @Nullable Map<String, Object> hints)
+                    throws IOException {
+                try (RequestTrace.Stage stage = RequestTrace.stage("serialize")) {
+                    super.writeInternal(object, resolvableType, outputMessage, hints);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package api.assignment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    // time the stages of every request (needed for the header and the buffer)
+    private boolean enabled = true;
+
+    // Server-Timing response header with the per-stage totals
+    private boolean serverTiming = true;
+
+    // finished requests kept for /actuator/slowrequests; the oldest are overwritten
+    private int bufferSize = 512;
+
+    // requests at least this slow are always kept...
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    // ...and this share of the rest
+    private double sampleRate = 0.05;
+}
@@ -0,0 +1,18 @@
+package api.assignment.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot quietly ignores spring.threads.virtual.enabled below Java 21, which would leave the
+// "virtual" profile running on platform threads with its wider pools; refuse to start instead
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled (the 'virtual' profile) needs a Java 21+ "
+                    + "runtime, this is " + Runtime.version() + "; build with -Pjava21 and run on Java 21");
+        }
+    }
+}
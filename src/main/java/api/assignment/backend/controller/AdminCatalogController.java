@@ -0,0 +1,28 @@
+package api.assignment.backend.controller;
+
+import api.assignment.backend.dto.catalog.CatalogSnapshotResponse;
+import api.assignment.backend.dto.catalog.CatalogSyncResponse;
+import api.assignment.backend.service.CatalogSnapshotService;
+import api.assignment.backend.service.CatalogSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+@RequiredArgsConstructor
+public class AdminCatalogController {
+
+    private final CatalogSyncService catalogSyncService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @PostMapping("/sync")
+    public ResponseEntity<CatalogSyncResponse> sync() {
+        return ResponseEntity.ok(catalogSyncService.sync());
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<CatalogSnapshotResponse> snapshot() {
+        return ResponseEntity.ok(catalogSnapshotService.export());
+    }
+}
@@ -0,0 +1,23 @@
+package api.assignment.backend.controller;
+
+import api.assignment.backend.dto.search.SearchReindexResponse;
+import api.assignment.backend.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+public class AdminSearchController {
+
+    private final SearchService searchService;
+
+    // also the indexing benchmark: load a large catalog (see seed.catalog) and read docsPerSecond
+    @PostMapping("/reindex")
+    public ResponseEntity<SearchReindexResponse> reindex() {
+        var stats = searchService.reindexAll();
+        return ResponseEntity.ok(new SearchReindexResponse(stats.documents(), stats.indexed(), stats.failed(),
+                stats.retried(), stats.batches(), stats.elapsedMillis(), Math.round(stats.docsPerSecond())));
+    }
+}
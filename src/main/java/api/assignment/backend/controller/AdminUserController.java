@@ -0,0 +1,29 @@
+package api.assignment.backend.controller;
+
+import api.assignment.backend.dto.user.UserImportResponse;
+import api.assignment.backend.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private final UserImportService userImportService;
+
+    // the body is consumed as a stream, never buffered whole
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportResponse> importCsv(InputStream body) {
+        return ResponseEntity.ok(userImportService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserImportResponse> importJson(InputStream body) {
+        return ResponseEntity.ok(userImportService.importJson(body));
+    }
+}
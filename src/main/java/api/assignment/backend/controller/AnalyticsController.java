@@ -0,0 +1,25 @@
+package api.assignment.backend.controller;
+
+import api.assignment.backend.dto.analytics.AnalyticsRebuildResponse;
+import api.assignment.backend.dto.analytics.CourseFunnelResponse;
+import api.assignment.backend.service.CourseAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final CourseAnalyticsService analyticsService;
+
+    @GetMapping("/api/analytics/courses/{courseId}/funnel")
+    public ResponseEntity<CourseFunnelResponse> getFunnel(@PathVariable String courseId) {
+        return ResponseEntity.ok(analyticsService.getFunnel(courseId));
+    }
+
+    @PostMapping("/api/admin/analytics/courses/{courseId}/rebuild")
+    public ResponseEntity<AnalyticsRebuildResponse> rebuild(@PathVariable String courseId) {
+        return ResponseEntity.ok(analyticsService.rebuild(courseId));
+    }
+}
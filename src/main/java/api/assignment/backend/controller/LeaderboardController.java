@@ -0,0 +1,23 @@
+package api.assignment.backend.controller;
+
+import api.assignment.backend.dto.leaderboard.LeaderboardResponse;
+import api.assignment.backend.security.AuthenticatedUser;
+import api.assignment.backend.security.CurrentUser;
+import api.assignment.backend.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping("/api/courses/{courseId}/leaderboard")
+    public ResponseEntity<LeaderboardResponse> getLeaderboard(@CurrentUser AuthenticatedUser user,
+                                                              @PathVariable String courseId,
+                                                              @RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(courseId, top, user.getId()));
+    }
+}
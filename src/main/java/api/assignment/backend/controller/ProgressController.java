@@ -1,28 +1,46 @@
 package api.assignment.backend.controller;
 
 import api.assignment.backend.dto.enrollment.ProgressResponse;
+import api.assignment.backend.dto.progress.NextSubtopicResponse;
 import api.assignment.backend.dto.progress.SubtopicCompleteResponse;
+import api.assignment.backend.security.AuthenticatedUser;
+import api.assignment.backend.security.CurrentUser;
 import api.assignment.backend.service.ProgressService;
+import api.assignment.backend.service.ProgressStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 public class ProgressController {
 
     private final ProgressService progressService;
+    private final ProgressStreamService progressStreamService;
 
     @PostMapping("/api/subtopics/{subtopicId}/complete")
-    public ResponseEntity<SubtopicCompleteResponse> markComplete(@PathVariable String subtopicId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return ResponseEntity.ok(progressService.markComplete(email, subtopicId));
+    public ResponseEntity<SubtopicCompleteResponse> markComplete(@CurrentUser AuthenticatedUser user,
+            @PathVariable String subtopicId) {
+        return ResponseEntity.ok(progressService.markComplete(user.getId(), subtopicId));
     }
 
     @GetMapping("/api/enrollments/{enrollmentId}/progress")
-    public ResponseEntity<ProgressResponse> getProgress(@PathVariable Long enrollmentId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return ResponseEntity.ok(progressService.getProgress(email, enrollmentId));
+    public ResponseEntity<ProgressResponse> getProgress(@CurrentUser AuthenticatedUser user,
+            @PathVariable Long enrollmentId) {
+        return ResponseEntity.ok(progressService.getProgress(user.getId(), enrollmentId));
+    }
+
+    @GetMapping("/api/enrollments/{enrollmentId}/next")
+    public ResponseEntity<NextSubtopicResponse> getNextSubtopic(@CurrentUser AuthenticatedUser user,
+            @PathVariable Long enrollmentId) {
+        return ResponseEntity.ok(progressService.getNextSubtopic(user.getId(), enrollmentId));
+    }
+
+    @GetMapping(value = "/api/enrollments/{enrollmentId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@CurrentUser AuthenticatedUser user,
+            @PathVariable Long enrollmentId) {
+        return progressStreamService.subscribe(user.getId(), enrollmentId);
     }
 }
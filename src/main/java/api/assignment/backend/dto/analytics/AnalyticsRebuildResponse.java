@@ -0,0 +1,12 @@
+package api.assignment.backend.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AnalyticsRebuildResponse {
+    private String courseId;
+    private boolean driftDetected;
+    private CourseFunnelResponse funnel;
+}
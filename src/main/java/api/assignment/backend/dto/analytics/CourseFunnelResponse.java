@@ -0,0 +1,18 @@
+package api.assignment.backend.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CourseFunnelResponse {
+    private String courseId;
+    private long enrollments;
+    private long courseCompletions;
+    private Long medianSecondsToComplete;
+    private List<FunnelStepDto> steps;
+    private Instant rebuiltAt;
+}
@@ -0,0 +1,15 @@
+package api.assignment.backend.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FunnelStepDto {
+    private String subtopicId;
+    private String topicId;
+    private long completions;
+    // learners who reached the previous step (or enrolled, for the first one) but not this one
+    private long dropOff;
+    private double dropOffRate;
+}
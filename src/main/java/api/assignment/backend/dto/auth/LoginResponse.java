@@ -9,4 +9,6 @@ public class LoginResponse {
     private String token;
     private String email;
     private long expiresIn;
+    private String refreshToken;
+    private long refreshExpiresIn;
 }
@@ -0,0 +1,16 @@
+package api.assignment.backend.dto.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CatalogSnapshotResponse {
+    private String path;
+    private String catalogVersion;
+    private int courses;
+    private int topics;
+    private int subtopics;
+    private long sizeBytes;
+    private long elapsedMillis;
+}
@@ -0,0 +1,16 @@
+package api.assignment.backend.dto.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class CatalogSyncResponse {
+    private long inserted;
+    private long updated;
+    private long deleted;
+    private long unchanged;
+    private Set<String> affectedCourseIds;
+}
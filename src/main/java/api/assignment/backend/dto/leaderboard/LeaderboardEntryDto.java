@@ -0,0 +1,16 @@
+package api.assignment.backend.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardEntryDto {
+    private int rank;
+    private Long userId;
+    private String name;
+    private int completedSubtopics;
+    private Instant lastCompletedAt;
+}
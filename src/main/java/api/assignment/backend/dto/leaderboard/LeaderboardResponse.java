@@ -0,0 +1,16 @@
+package api.assignment.backend.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardResponse {
+    private String courseId;
+    private int totalLearners;
+    private List<LeaderboardEntryDto> entries;
+    // only present for an authenticated caller who has completed something in this course
+    private LeaderboardEntryDto me;
+}
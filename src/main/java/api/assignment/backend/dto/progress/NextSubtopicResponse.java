@@ -0,0 +1,19 @@
+package api.assignment.backend.dto.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NextSubtopicResponse {
+    private Long enrollmentId;
+    private String courseId;
+    private boolean courseCompleted;
+    // the fields below are null once every subtopic is completed
+    private String topicId;
+    private String topicTitle;
+    private String subtopicId;
+    private String subtopicTitle;
+    private Integer position;
+    private int totalSubtopics;
+}
@@ -0,0 +1,12 @@
+package api.assignment.backend.dto.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProgressDelta {
+    private int completedSubtopics;
+    private int totalSubtopics;
+    private double completionPercentage;
+}
@@ -0,0 +1,14 @@
+package api.assignment.backend.dto.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SubtopicCompletedDelta {
+    private String subtopicId;
+    private String topicId;
+    private Instant completedAt;
+}
@@ -0,0 +1,10 @@
+package api.assignment.backend.dto.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TopicCompletedDelta {
+    private String topicId;
+}
@@ -0,0 +1,16 @@
+package api.assignment.backend.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchReindexResponse {
+    private long documents;
+    private long indexed;
+    private long failed;
+    private long retried;
+    private long batches;
+    private long elapsedMillis;
+    private long docsPerSecond;
+}
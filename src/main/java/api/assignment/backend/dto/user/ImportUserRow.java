@@ -0,0 +1,28 @@
+package api.assignment.backend.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportUserRow {
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Invalid email format")
+    private String email;
+
+    // BCrypt only looks at the first 72 bytes
+    @NotBlank(message = "Password is required")
+    @Size(max = 72, message = "Password must be at most 72 characters")
+    private String password;
+
+    // optional, defaults to the local part of the email like /api/auth/register
+    private String name;
+}
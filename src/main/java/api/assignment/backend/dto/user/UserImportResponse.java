@@ -0,0 +1,17 @@
+package api.assignment.backend.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserImportResponse {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private List<UserImportRowResult> rows;
+}
@@ -0,0 +1,18 @@
+package api.assignment.backend.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserImportRowResult {
+
+    public enum Status { CREATED, DUPLICATE, INVALID, FAILED }
+
+    // 1-based position in the uploaded file (data rows for CSV, array elements for JSON)
+    private int row;
+    private String email;
+    private Status status;
+    private Long userId;
+    private String message;
+}
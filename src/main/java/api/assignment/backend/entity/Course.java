@@ -24,6 +24,10 @@ public class Course {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // SHA-256 of this row's own fields as last imported; catalog sync compares against it
+    @Column(length = 64)
+    private String contentHash;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("orderIndex ASC")
     @Builder.Default
@@ -0,0 +1,44 @@
+package api.assignment.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the raw token; the raw value is only ever seen by the client
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // every token produced by rotating the same login shares a family
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // the user's security stamp at issue time; a rotated stamp invalidates the token
+    private String securityStamp;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    private Instant revokedAt;
+}
@@ -0,0 +1,31 @@
+package api.assignment.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/** Access token ids revoked before their expiry (logout). Rows can be purged once expired. */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // other nodes poll for rows revoked since their last load; null on rows from before the column
+    @Column(name = "revoked_at")
+    @Builder.Default
+    private Instant revokedAt = Instant.now();
+}
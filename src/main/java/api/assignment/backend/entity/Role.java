@@ -0,0 +1,6 @@
+package api.assignment.backend.entity;
+
+public enum Role {
+    USER,
+    ADMIN
+}
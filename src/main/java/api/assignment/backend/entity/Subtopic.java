@@ -23,6 +23,9 @@ public class Subtopic {
 
     private int orderIndex;
 
+    @Column(length = 64)
+    private String contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "topic_id", nullable = false)
     private Topic topic;
@@ -23,6 +23,9 @@ public class Topic {
 
     private int orderIndex;
 
+    @Column(length = 64)
+    private String contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id", nullable = false)
     private Course course;
@@ -3,6 +3,8 @@ package api.assignment.backend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.UUID;
+
 @Entity
 @Table(name = "users")
 @Getter
@@ -12,8 +14,10 @@ import lombok.*;
 @Builder
 public class User {
 
+    // pooled sequence instead of IDENTITY so inserts can be JDBC-batched (bulk import)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,4 +28,13 @@ public class User {
 
     @Column(nullable = false)
     private String password;
+
+    // embedded in issued tokens; rotate it to invalidate a user's tokens at the next refresh
+    @Builder.Default
+    private String securityStamp = UUID.randomUUID().toString();
+
+    // nullable so the column can be added to an existing table; null means USER
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Role role = Role.USER;
 }
@@ -0,0 +1,24 @@
+package api.assignment.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Published after a catalog import or sync has committed. The id sets name rows that were
+ * inserted or updated (changed*) or removed (deletedSubtopicIds); affectedCourseIds is every
+ * course whose outline may look different now, including ones that lost or gained rows.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+
+    // true after loading into an empty catalog: the id sets are left empty and listeners rebuild
+    private final boolean fullReload;
+    private final Set<String> affectedCourseIds;
+    private final Set<String> changedCourseIds;
+    private final Set<String> changedTopicIds;
+    private final Set<String> changedSubtopicIds;
+    private final Set<String> deletedSubtopicIds;
+}
@@ -0,0 +1,16 @@
+package api.assignment.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/** Published by {@code EnrollmentService.enroll} once a new enrollment has been saved. */
+@Getter
+@AllArgsConstructor
+public class EnrollmentCreatedEvent {
+    private final Long enrollmentId;
+    private final Long userId;
+    private final String courseId;
+    private final Instant enrolledAt;
+}
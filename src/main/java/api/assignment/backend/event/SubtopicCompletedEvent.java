@@ -0,0 +1,40 @@
+package api.assignment.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Published by {@code ProgressService.markComplete} the first time a user completes a subtopic.
+ * Counts are absolute (as of the completing transaction), so listeners can apply the event
+ * idempotently and out of order.
+ */
+@Getter
+@AllArgsConstructor
+public class SubtopicCompletedEvent {
+    private final Long enrollmentId;
+    private final Long userId;
+    private final String courseId;
+    private final String topicId;
+    private final String subtopicId;
+    private final Instant enrolledAt;
+    private final Instant completedAt;
+    private final int topicCompleted;
+    private final int topicTotal;
+    private final int courseCompleted;
+    private final int courseTotal;
+
+    public boolean isTopicCompleted() {
+        return topicTotal > 0 && topicCompleted == topicTotal;
+    }
+
+    public boolean isCourseCompleted() {
+        return courseTotal > 0 && courseCompleted == courseTotal;
+    }
+
+    public double getCompletionPercentage() {
+        return courseTotal == 0 ? 0
+                : Math.round((double) courseCompleted / courseTotal * 10000.0) / 100.0;
+    }
+}
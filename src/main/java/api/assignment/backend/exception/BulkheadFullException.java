@@ -0,0 +1,8 @@
+package api.assignment.backend.exception;
+
+public class BulkheadFullException extends ServiceUnavailableException {
+
+    public BulkheadFullException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -2,6 +2,41 @@ package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface CourseRepository extends JpaRepository<Course, String> {
+
+    @Query("select c.id from Course c order by c.id")
+    List<String> findAllIds();
+
+    @Query("select c.id as id, c.contentHash as contentHash, c.id as courseId from Course c")
+    List<ContentHashRow> findContentHashes();
+
+    @Query("select c.id as id, c.title as title, c.description as description from Course c order by c.id")
+    List<SnapshotCourseRow> findSnapshotCourses();
+
+    // fingerprint of every row's content hash (hashes include parent ids and ordering), so it changes
+    // whenever an import/sync changes anything; cheap because content itself is never read
+    @Query(value = """
+            select md5(coalesce(string_agg(kind || ':' || id || ':' || coalesce(content_hash, ''), ',' order by kind, id), ''))
+            from (select 'c' as kind, id, content_hash from courses
+                  union all select 't', id, content_hash from topics
+                  union all select 's', id, content_hash from subtopics) catalog_rows
+            """, nativeQuery = true)
+    String findCatalogVersion();
+
+    interface SnapshotCourseRow {
+        String getId();
+        String getTitle();
+        String getDescription();
+    }
+
+    // shared by the topic and subtopic variants; courseId is the course the row belongs to
+    interface ContentHashRow {
+        String getId();
+        String getContentHash();
+        String getCourseId();
+    }
 }
@@ -2,10 +2,35 @@ package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.Enrollment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     Optional<Enrollment> findByUserIdAndCourseId(Long userId, String courseId);
     boolean existsByUserIdAndCourseId(Long userId, String courseId);
+    long countByCourseIdAndEnrolledAtBefore(String courseId, Instant cutoff);
+
+    // enrollments whose user had completed every given subtopic before the cutoff
+    @Query("""
+            select e.enrolledAt as enrolledAt, max(p.completedAt) as completedAt
+            from Enrollment e, SubtopicProgress p
+            where e.courseId = :courseId and p.userId = e.userId
+              and p.subtopicId in :subtopicIds and p.completedAt < :cutoff
+            group by e.id, e.enrolledAt
+            having count(p) = :total
+            """)
+    List<CompletionSpan> findCompletionSpans(@Param("courseId") String courseId,
+                                             @Param("subtopicIds") Collection<String> subtopicIds,
+                                             @Param("total") long total,
+                                             @Param("cutoff") Instant cutoff);
+
+    interface CompletionSpan {
+        Instant getEnrolledAt();
+        Instant getCompletedAt();
+    }
 }
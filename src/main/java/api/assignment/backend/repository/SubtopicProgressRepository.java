@@ -2,11 +2,47 @@ package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.SubtopicProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SubtopicProgressRepository extends JpaRepository<SubtopicProgress, Long> {
     Optional<SubtopicProgress> findByUserIdAndSubtopicId(Long userId, String subtopicId);
     List<SubtopicProgress> findAllByUserIdAndSubtopicIdIn(Long userId, List<String> subtopicIds);
+
+    @Query("select p.subtopicId from SubtopicProgress p where p.userId = :userId and p.subtopicId in :subtopicIds")
+    List<String> findCompletedSubtopicIds(@Param("userId") Long userId,
+                                          @Param("subtopicIds") Collection<String> subtopicIds);
+
+    @Query("""
+            select p.subtopicId as subtopicId, count(p) as completions
+            from SubtopicProgress p
+            where p.subtopicId in :subtopicIds and p.completedAt < :cutoff
+            group by p.subtopicId
+            """)
+    List<SubtopicCount> countCompletionsBySubtopic(@Param("subtopicIds") Collection<String> subtopicIds,
+                                                   @Param("cutoff") Instant cutoff);
+
+    interface SubtopicCount {
+        String getSubtopicId();
+        long getCompletions();
+    }
+
+    @Query("""
+            select p.userId as userId, count(p) as completions, max(p.completedAt) as lastCompletedAt
+            from SubtopicProgress p
+            where p.subtopicId in :subtopicIds
+            group by p.userId
+            """)
+    List<LearnerCompletions> summarizeByUser(@Param("subtopicIds") Collection<String> subtopicIds);
+
+    interface LearnerCompletions {
+        Long getUserId();
+        long getCompletions();
+        Instant getLastCompletedAt();
+    }
 }
@@ -1,7 +1,63 @@
 package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.Subtopic;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface SubtopicRepository extends JpaRepository<Subtopic, String> {
+
+    @Query("""
+            select s.id as subtopicId, s.title as subtopicTitle, t.id as topicId, t.title as topicTitle
+            from Subtopic s join s.topic t
+            where t.course.id = :courseId
+            order by t.orderIndex asc, s.orderIndex asc
+            """)
+    List<OutlineRow> findOutlineByCourseId(@Param("courseId") String courseId);
+
+    @Query("select s.id as id, s.contentHash as contentHash, t.course.id as courseId from Subtopic s join s.topic t")
+    List<CourseRepository.ContentHashRow> findContentHashes();
+
+    @Query("select s.id from Subtopic s join s.topic t where t.id in :topicIds or t.course.id in :courseIds")
+    List<String> findIdsByTopicIdInOrCourseIdIn(@Param("topicIds") Collection<String> topicIds,
+                                                @Param("courseIds") Collection<String> courseIds);
+
+    @Query("""
+            select s.id as subtopicId, s.title as subtopicTitle, s.content as content, t.title as topicTitle,
+                   c.id as courseId, c.title as courseTitle, c.description as courseDescription
+            from Subtopic s join s.topic t join t.course c
+            where s.id in :ids
+            """)
+    List<SearchDocumentRow> findSearchDocuments(@Param("ids") Collection<String> ids);
+
+    // keyset page for the indexing pipeline; start with afterId = ""
+    @Query("""
+            select s.id as subtopicId, s.title as subtopicTitle, s.content as content, t.title as topicTitle,
+                   c.id as courseId, c.title as courseTitle, c.description as courseDescription
+            from Subtopic s join s.topic t join t.course c
+            where s.id > :afterId
+            order by s.id asc
+            """)
+    List<SearchDocumentRow> findSearchDocumentsAfter(@Param("afterId") String afterId, Pageable page);
+
+    interface SearchDocumentRow {
+        String getSubtopicId();
+        String getSubtopicTitle();
+        String getContent();
+        String getTopicTitle();
+        String getCourseId();
+        String getCourseTitle();
+        String getCourseDescription();
+    }
+
+    interface OutlineRow {
+        String getSubtopicId();
+        String getSubtopicTitle();
+        String getTopicId();
+        String getTopicTitle();
+    }
 }
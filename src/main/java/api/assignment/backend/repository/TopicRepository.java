@@ -2,6 +2,31 @@ package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.Topic;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface TopicRepository extends JpaRepository<Topic, String> {
+
+    @Query("select t.id as id, t.contentHash as contentHash, t.course.id as courseId from Topic t")
+    List<CourseRepository.ContentHashRow> findContentHashes();
+
+    // one row per subtopic (or one with null subtopic fields for an empty topic), in display order
+    @Query("""
+            select t.id as topicId, t.title as topicTitle,
+                   s.id as subtopicId, s.title as subtopicTitle, s.content as content
+            from Topic t left join t.subtopics s
+            where t.course.id = :courseId
+            order by t.orderIndex asc, t.id asc, s.orderIndex asc
+            """)
+    List<SnapshotRow> findSnapshotRows(@Param("courseId") String courseId);
+
+    interface SnapshotRow {
+        String getTopicId();
+        String getTopicTitle();
+        String getSubtopicId();
+        String getSubtopicTitle();
+        String getContent();
+    }
 }
@@ -2,10 +2,42 @@ package api.assignment.backend.repository;
 
 import api.assignment.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // read-write so it runs on the primary even inside a read-only caller: login is anonymous, so
+    // ReadYourWrites can't pin it, and an account registered a moment ago may not be on the replica yet
+    @Transactional
+    @Query("select u from User u where u.email = :email")
+    Optional<User> findByEmailOnPrimary(@Param("email") String email);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // users created while ids came from an IDENTITY column are invisible to users_seq; move the
+    // sequence past them. Returns the new value, or empty when the sequence is already ahead.
+    @Transactional
+    @Query(value = "select setval('users_seq', (select max(id) from users) + 50) " +
+            "where (select max(id) from users) > (select last_value from users_seq)", nativeQuery = true)
+    Optional<Long> alignIdSequence();
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.securityStamp = :stamp where u.id = :id")
+    int updateSecurityStamp(@Param("id") Long id, @Param("stamp") String stamp);
 }
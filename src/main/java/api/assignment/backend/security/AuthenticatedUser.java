@@ -0,0 +1,62 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.entity.Role;
+import api.assignment.backend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The authenticated principal. On login it is loaded from the database (with the password hash);
+ * on every other request it is rebuilt from the verified JWT claims, with no password and no
+ * database access.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements UserDetails {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final String securityStamp;
+    private final Role role;
+    // id and expiry of the access token this principal came from; null at login
+    private final String tokenId;
+    private final Instant tokenExpiresAt;
+
+    public static AuthenticatedUser fromUser(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+                user.getSecurityStamp(), user.getRole() != null ? user.getRole() : Role.USER, null, null);
+    }
+
+    public static AuthenticatedUser fromClaims(Long id, String email, String securityStamp, Role role,
+                                               String tokenId, Instant tokenExpiresAt) {
+        return new AuthenticatedUser(id, email, null, securityStamp, role, tokenId, tokenExpiresAt);
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES.get(role);
+    }
+}
@@ -0,0 +1,18 @@
+package api.assignment.backend.security;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.*;
+
+/**
+ * Injects the caller's {@link AuthenticatedUser} — id, email, role — as resolved once per request
+ * by {@link JwtAuthenticationFilter} from the token claims. Controllers pass {@code user.getId()}
+ * down; nothing behind them looks the caller up by email. Null on public endpoints when no token
+ * was sent.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal
+public @interface CurrentUser {
+}
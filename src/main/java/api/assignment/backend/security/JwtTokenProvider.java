@@ -1,55 +1,171 @@
 package api.assignment.backend.security;
 
+import api.assignment.backend.entity.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String STAMP_CLAIM = "stamp";
+    static final String ROLE_CLAIM = "role";
+
     private final SecretKey key;
     private final long expiration;
+    // immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+    // SHA-256 of the raw token -> principal, kept until the token itself expires
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+    // cached: answered from the cache; verified: signature checked; rejected: invalid, expired or outdated
+    private final Timer cachedValidation;
+    private final Timer verifiedValidation;
+    private final Timer rejectedValidation;
 
     public JwtTokenProvider(@Value("${jwt.secret}") String secret,
-                            @Value("${jwt.expiration}") long expiration) {
+                            @Value("${jwt.expiration}") long expiration,
+                            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                            MeterRegistry meterRegistry) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expiration = expiration;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        Gauge.builder("jwt.verified-tokens.hit.ratio", verifiedTokens, c -> c.stats().hitRate())
+                .description("Share of bearer tokens served from the verified-token cache")
+                .register(meterRegistry);
+        this.cachedValidation = validationTimer(meterRegistry, "cached");
+        this.verifiedValidation = validationTimer(meterRegistry, "verified");
+        this.rejectedValidation = validationTimer(meterRegistry, "rejected");
     }
 
-    public String generateToken(String email) {
+    public String generateToken(AuthenticatedUser user) {
         Date now = new Date();
         return Jwts.builder()
-                .subject(email)
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(STAMP_CLAIM, user.getSecurityStamp())
+                .claim(ROLE_CLAIM, user.getRole().name())
                 .issuedAt(now)
                 .expiration(new Date(now.getTime() + expiration))
                 .signWith(key)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    /**
+     * Verifies the token once and returns its principal, or empty if the token is invalid,
+     * expired or predates embedded user ids. Repeat calls with the same token are answered from
+     * the cache without re-checking the signature.
+     */
+    public Optional<AuthenticatedUser> resolvePrincipal(String token) {
+        long start = System.nanoTime();
+        ByteBuffer digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            cachedValidation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached.expiresAt() > System.currentTimeMillis()
+                    ? Optional.of(cached.principal())
+                    : Optional.empty();
+        }
+
+        Optional<AuthenticatedUser> principal = verify(token, digest);
+        (principal.isPresent() ? verifiedValidation : rejectedValidation)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return principal;
     }
 
-    public boolean validateToken(String token) {
+    private Optional<AuthenticatedUser> verify(String token, ByteBuffer digest) {
+        Claims claims;
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
+        }
+
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        if (userId == null || claims.getExpiration() == null) {
+            // issued before ids were embedded; the client has to log in again
+            return Optional.empty();
         }
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(userId, claims.getSubject(),
+                claims.get(STAMP_CLAIM, String.class), roleOf(claims), claims.getId(),
+                claims.getExpiration().toInstant());
+        verifiedTokens.put(digest, new VerifiedToken(principal, claims.getExpiration().getTime()));
+        return Optional.of(principal);
     }
 
     public long getExpiration() {
         return expiration;
     }
+
+    // tokens issued before roles existed carry no claim; they belong to regular users
+    private static Role roleOf(Claims claims) {
+        String role = claims.get(ROLE_CLAIM, String.class);
+        try {
+            return role != null ? Role.valueOf(role) : Role.USER;
+        } catch (IllegalArgumentException e) {
+            return Role.USER;
+        }
+    }
+
+    private static Timer validationTimer(MeterRegistry registry, String result) {
+        return Timer.builder("jwt.validation")
+                .description("Time to resolve a bearer token to its principal")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(AuthenticatedUser principal, long expiresAt) {}
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a dedicated, size-limited pool instead of Tomcat request threads. When the
+ * queue is full the work is rejected up front with a {@link ServiceUnavailableException}, so a
+ * login storm sheds load instead of occupying every worker thread.
+ */
+@Component
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final int bulkParallelism;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.password.hashing-threads:0}") int threads,
+                                  @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.password.retry-after:1s}") Duration retryAfter,
+                                  @Value("${auth.password.bulk-parallelism:0}") int bulkParallelism) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.bulkParallelism = bulkParallelism > 0 ? bulkParallelism : Math.max(1, poolSize / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.verifyTimer = hashTimer(meterRegistry, "verify");
+        this.queueWaitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time a hash waited for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Hashes a batch in parallel on the same pool, with at most {@code auth.password.bulk-parallelism}
+     * hashes in flight so interactive logins keep the rest of it. Never sheds: when the queue is
+     * full the hash runs on the calling thread instead, which also slows the caller down.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        Semaphore inFlight = new Semaphore(bulkParallelism);
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String raw : rawPasswords) {
+            inFlight.acquireUninterruptibly();
+            Supplier<String> task = () -> {
+                try {
+                    return encodeTimer.record(() -> passwordEncoder.encode(raw));
+                } finally {
+                    inFlight.release();
+                }
+            };
+            try {
+                hashes.add(CompletableFuture.supplyAsync(task, executor));
+            } catch (RejectedExecutionException e) {
+                hashes.add(CompletableFuture.completedFuture(task.get()));
+            }
+        }
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    /** True when the hash was produced with a lower cost than the one currently configured. */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(
+                    "Too many authentication requests, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("auth.password.hashing")
+                .description("Time spent in BCrypt")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
@@ -0,0 +1,112 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.config.RateLimitProperties;
+import api.assignment.backend.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-route limits from {@code rate-limit.routes}. Runs after
+ * {@link JwtAuthenticationFilter} so per-user limits can key on the authenticated user id.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final TokenBucketRateLimiter limiter;
+    private final boolean enabled;
+    private final List<CompiledRoute> routes;
+    private final ObjectMapper errorWriter = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public RateLimitFilter(TokenBucketRateLimiter limiter, RateLimitProperties properties) {
+        this.limiter = limiter;
+        this.enabled = properties.isEnabled();
+        this.routes = properties.getRoutes().stream()
+                .map(r -> new CompiledRoute(PathPatternParser.defaultInstance.parse(r.getPattern()), r))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        int index = matchRoute(request);
+        if (index >= 0) {
+            RateLimitProperties.Route route = routes.get(index).route();
+            long waitNanos = 0;
+            if (route.getPerIp() != null) {
+                waitNanos = limiter.tryAcquire(index, 'i', request.getRemoteAddr(), route.getPerIp());
+            }
+            Long userId = currentUserId();
+            if (waitNanos == 0 && route.getPerUser() != null && userId != null) {
+                waitNanos = limiter.tryAcquire(index, 'u', userId.toString(), route.getPerUser());
+            }
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private int matchRoute(HttpServletRequest request) {
+        PathContainer path = null;
+        for (int i = 0; i < routes.size(); i++) {
+            CompiledRoute candidate = routes.get(i);
+            String method = candidate.route().getMethod();
+            if (method != null && !method.equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (candidate.pattern().matches(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser user ? user.getId() : null;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        errorWriter.writeValue(response.getOutputStream(),
+                new ErrorResponse("Too Many Requests", "Rate limit exceeded, retry later", Instant.now()));
+    }
+
+    private record CompiledRoute(PathPattern pattern, RateLimitProperties.Route route) {}
+}
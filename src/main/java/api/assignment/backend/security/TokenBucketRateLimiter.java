@@ -0,0 +1,103 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.config.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token buckets keyed by (route, kind, subject). Lookups go through a
+ * {@link ConcurrentHashMap}; each bucket guards its two fields with its own monitor, so threads
+ * only contend when they hit the very same key.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    // route index of buckets that aren't tied to a rate-limit.routes entry
+    public static final int NO_ROUTE = -1;
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenBucketRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    // nanoClock stands in for System.nanoTime() in tests
+    TokenBucketRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the bucket for the given key.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(int route, char kind, String subject, RateLimitProperties.Limit limit) {
+        long now = nanoClock.getAsLong();
+        Bucket bucket = buckets.computeIfAbsent(new BucketKey(route, kind, subject), k -> new Bucket(limit, now));
+        return bucket.tryAcquire(now);
+    }
+
+    /** Drops the bucket for the given key, so the next request starts with a full one. */
+    public void reset(int route, char kind, String subject) {
+        buckets.remove(new BucketKey(route, kind, subject));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60s}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private record BucketKey(int route, char kind, String subject) {}
+
+    private static final class Bucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final long refillNanos;
+        private double tokens;
+        private long lastRefill;
+        private volatile long lastAccess;
+
+        Bucket(RateLimitProperties.Limit limit, long now) {
+            this.capacity = limit.getCapacity();
+            this.tokensPerNano = limit.getRefillPerSecond() / TimeUnit.SECONDS.toNanos(1);
+            this.refillNanos = tokensPerNano > 0 ? (long) (capacity / tokensPerNano) : Long.MAX_VALUE;
+            this.tokens = capacity;
+            this.lastRefill = now;
+            this.lastAccess = now;
+        }
+
+        synchronized long tryAcquire(long now) {
+            lastAccess = now;
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+        }
+
+        // dropping a bucket before it has refilled would hand out free tokens
+        boolean isIdle(long now, long idleNanos) {
+            long idle = now - lastAccess;
+            return idle > idleNanos && idle > refillNanos;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.entity.RevokedToken;
+import api.assignment.backend.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access-token ids. The request path only consults the in-memory Bloom filter; the
+ * exact set is touched on a (rare) filter hit to rule out false positives. The database copy
+ * exists so a restart doesn't forget revocations, and so other nodes learn about them: each node
+ * polls for rows revoked since its last load every {@code jwt.revocation.reload-interval}, which
+ * is how long a token revoked on one node can still be accepted by another.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    // re-read a little before the last load: rows are stamped before they commit, and by another
+    // node's clock
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    // null until the initial load, so the poll doesn't run ahead of it
+    private volatile Instant loadedAt;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder().tokenId(tokenId).expiresAt(expiresAt).build());
+        revoked.put(tokenId, expiresAt);
+        filter.add(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findAllByExpiresAtAfter(now)) {
+            revoked.put(token.getTokenId(), token.getExpiresAt());
+        }
+        rebuildFilter();
+        loadedAt = now;
+        log.info("Loaded {} revoked token ids.", revoked.size());
+    }
+
+    // picks up revocations made through other nodes
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval:30s}",
+            initialDelayString = "${jwt.revocation.reload-interval:30s}")
+    public void loadRecent() {
+        Instant since = loadedAt;
+        if (since == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        int added = 0;
+        for (RevokedToken token : revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(
+                since.minus(RELOAD_OVERLAP), now)) {
+            if (revoked.put(token.getTokenId(), token.getExpiresAt()) == null) {
+                filter.add(token.getTokenId());
+                added++;
+            }
+        }
+        loadedAt = now;
+        if (added > 0) {
+            log.debug("Loaded {} token ids revoked elsewhere.", added);
+        }
+    }
+
+    // a Bloom filter can't forget, so expired ids are dropped by rebuilding it
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:15m}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2L), falsePositiveRate);
+        revoked.keySet().forEach(fresh::add);
+        filter = fresh;
+        // ids revoked while the copy was built may be missing from it
+        revoked.keySet().forEach(fresh::add);
+    }
+}
@@ -0,0 +1,506 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.entity.Course;
+import api.assignment.backend.entity.Subtopic;
+import api.assignment.backend.entity.Topic;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import api.assignment.backend.repository.TopicRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a {@code courses.json} catalog into the database. The file is walked token by token,
+ * so at most one subtopic's content is held at a time; entities are written as soon as their
+ * fields are read and committed every {@code seed.chunk-size} rows, which bounds the persistence
+ * context and lets Hibernate send the statements as JDBC batches. Heap use doesn't grow with the
+ * size of the catalog.
+ *
+ * {@link #importCatalog} assumes an empty catalog and inserts everything. {@link #syncCatalog}
+ * compares each row's content hash with the stored one and only inserts, updates or deletes
+ * what differs; it needs the stored ids and hashes in memory, but nothing else.
+ *
+ * Within an object, the scalar fields of a course or topic have to come before its nested array
+ * (as in the bundled file), since the parent row is written before its children are read.
+ *
+ * Learner rows point at the catalog by id only, without foreign keys, so they are deleted together
+ * with what they point at: a removed subtopic takes its {@code subtopic_progress} rows along and a
+ * removed course its {@code enrollments}. A subtopic that moves to another topic or course keeps them.
+ */
+@Component
+@Slf4j
+public class CatalogImporter {
+
+    private static final int DELETE_BATCH = 1000;
+
+    // learner rows removed in the same transaction as the catalog rows they reference
+    private static final Map<Class<?>, String> DEPENDENTS = Map.of(
+            Subtopic.class, "delete from SubtopicProgress p where p.subtopicId in :ids",
+            Course.class, "delete from Enrollment e where e.courseId in :ids");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final CourseRepository courseRepository;
+    private final TopicRepository topicRepository;
+    private final SubtopicRepository subtopicRepository;
+    private final int chunkSize;
+
+    public CatalogImporter(PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           CourseRepository courseRepository,
+                           TopicRepository topicRepository,
+                           SubtopicRepository subtopicRepository,
+                           @Value("${seed.chunk-size:500}") int chunkSize) {
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.courseRepository = courseRepository;
+        this.topicRepository = topicRepository;
+        this.subtopicRepository = subtopicRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result importCatalog(InputStream in) throws IOException {
+        Run run = new Run(new Stored());
+        try {
+            read(in, run);
+        } catch (RuntimeException | IOException e) {
+            removePartialImport();
+            throw e;
+        }
+        return run.result;
+    }
+
+    // nothing to undo on failure: every committed chunk matches the file, so running the sync
+    // again picks up where this one stopped
+    public Result syncCatalog(InputStream in) throws IOException {
+        Run run = new Run(loadStored());
+        read(in, run);
+        run.deleteMissing();
+        return run.result;
+    }
+
+    private void read(InputStream in, Run run) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             Chunk chunk = run.chunk) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"courses".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser.currentToken(), JsonToken.START_ARRAY, parser);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readCourse(parser, run);
+                }
+            }
+            chunk.commit();
+        }
+    }
+
+    private void readCourse(JsonParser parser, Run run) throws IOException {
+        Course course = new Course();
+        boolean written = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> course.setId(parser.getText());
+                case "title" -> course.setTitle(parser.getText());
+                case "description" -> course.setDescription(parser.getText());
+                case "topics" -> {
+                    expect(value, JsonToken.START_ARRAY, parser);
+                    requireFields(course.getId(), course.getTitle(), "course", parser);
+                    run.write(course);
+                    written = true;
+                    int order = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readTopic(parser, run, course.getId(), order++);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (!written) {
+            requireFields(course.getId(), course.getTitle(), "course", parser);
+            run.write(course);
+        }
+    }
+
+    private void readTopic(JsonParser parser, Run run, String courseId, int order) throws IOException {
+        Topic topic = new Topic();
+        topic.setOrderIndex(order);
+        boolean written = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> topic.setId(parser.getText());
+                case "title" -> topic.setTitle(parser.getText());
+                case "subtopics" -> {
+                    expect(value, JsonToken.START_ARRAY, parser);
+                    requireFields(topic.getId(), topic.getTitle(), "topic", parser);
+                    run.write(topic, courseId);
+                    written = true;
+                    int subtopicOrder = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readSubtopic(parser, run, courseId, topic.getId(), subtopicOrder++);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (!written) {
+            requireFields(topic.getId(), topic.getTitle(), "topic", parser);
+            run.write(topic, courseId);
+        }
+    }
+
+    private void readSubtopic(JsonParser parser, Run run, String courseId, String topicId, int order)
+            throws IOException {
+        Subtopic subtopic = new Subtopic();
+        subtopic.setOrderIndex(order);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> subtopic.setId(parser.getText());
+                case "title" -> subtopic.setTitle(parser.getText());
+                case "content" -> subtopic.setContent(parser.getText());
+                default -> parser.skipChildren();
+            }
+        }
+        requireFields(subtopic.getId(), subtopic.getTitle(), "subtopic", parser);
+        run.write(subtopic, courseId, topicId);
+    }
+
+    private Stored loadStored() {
+        Stored stored = new Stored();
+        courseRepository.findContentHashes().forEach(row -> stored.courses.put(row.getId(), new StoredRow(row)));
+        topicRepository.findContentHashes().forEach(row -> stored.topics.put(row.getId(), new StoredRow(row)));
+        subtopicRepository.findContentHashes().forEach(row -> stored.subtopics.put(row.getId(), new StoredRow(row)));
+        return stored;
+    }
+
+    // the loader only imports into an empty catalog, so everything in these tables came from this
+    // run, and so did any progress or enrollment recorded against it meanwhile
+    private void removePartialImport() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                entityManager.createQuery("delete from Subtopic").executeUpdate();
+                entityManager.createQuery("delete from Topic").executeUpdate();
+                entityManager.createQuery("delete from Course").executeUpdate();
+                entityManager.createQuery("delete from SubtopicProgress p where p.subtopicId not in "
+                        + "(select s.id from Subtopic s)").executeUpdate();
+                entityManager.createQuery("delete from Enrollment e where e.courseId not in "
+                        + "(select c.id from Course c)").executeUpdate();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to remove partially imported catalog: {}", e.getMessage());
+        }
+    }
+
+    static String hash(Object... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object field : fields) {
+                // a separator that can't appear in the JSON text, and a marker for null vs ""
+                digest.update(field == null ? new byte[]{0} : String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0x1f);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, JsonParser parser) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual + " at " + parser.currentLocation());
+        }
+    }
+
+    private static void requireFields(String id, String title, String kind, JsonParser parser) throws IOException {
+        if (id == null || title == null) {
+            throw new IOException("A " + kind + " needs 'id' and 'title' before its nested entries, at "
+                    + parser.currentLocation());
+        }
+    }
+
+    private record StoredRow(String contentHash, String courseId) {
+        StoredRow(CourseRepository.ContentHashRow row) {
+            this(row.getContentHash(), row.getCourseId());
+        }
+    }
+
+    /** Rows in the database before the run; whatever is left after reading the file gets deleted. */
+    private static final class Stored {
+        private final Map<String, StoredRow> courses = new HashMap<>();
+        private final Map<String, StoredRow> topics = new HashMap<>();
+        private final Map<String, StoredRow> subtopics = new HashMap<>();
+
+        boolean isEmpty() {
+            return courses.isEmpty() && topics.isEmpty() && subtopics.isEmpty();
+        }
+    }
+
+    public static final class Result {
+        private long courses;
+        private long topics;
+        private long subtopics;
+        private long inserted;
+        private long updated;
+        private long deleted;
+        // ids are only collected for a diff; a load into an empty catalog is reported as a full reload
+        private final boolean fullReload;
+        private final Set<String> affectedCourseIds = new HashSet<>();
+        private final Set<String> changedCourseIds = new HashSet<>();
+        private final Set<String> changedTopicIds = new HashSet<>();
+        private final Set<String> changedSubtopicIds = new HashSet<>();
+        private final Set<String> deletedSubtopicIds = new HashSet<>();
+
+        private Result(boolean fullReload) {
+            this.fullReload = fullReload;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+
+        public long getUnchanged() {
+            return courses + topics + subtopics - inserted - updated;
+        }
+
+        public boolean hasChanges() {
+            return inserted + updated + deleted > 0;
+        }
+
+        public Set<String> getAffectedCourseIds() {
+            return affectedCourseIds;
+        }
+
+        public CatalogChangedEvent toEvent() {
+            return new CatalogChangedEvent(fullReload, affectedCourseIds, changedCourseIds, changedTopicIds,
+                    changedSubtopicIds, deletedSubtopicIds);
+        }
+
+        @Override
+        public String toString() {
+            return courses + " courses, " + topics + " topics, " + subtopics + " subtopics ("
+                    + inserted + " inserted, " + updated + " updated, " + deleted + " deleted)";
+        }
+    }
+
+    private final class Run {
+
+        private final Stored stored;
+        private final Result result;
+        private final Chunk chunk = new Chunk();
+
+        Run(Stored stored) {
+            this.stored = stored;
+            this.result = new Result(stored.isEmpty());
+        }
+
+        void write(Course course) {
+            result.courses++;
+            course.setContentHash(hash(course.getId(), course.getTitle(), course.getDescription()));
+            StoredRow before = stored.courses.remove(course.getId());
+            if (before == null) {
+                chunk.persist(course);
+                inserted(course.getId(), result.changedCourseIds, course.getId());
+            } else if (!course.getContentHash().equals(before.contentHash())) {
+                Course managed = chunk.find(Course.class, course.getId());
+                managed.setTitle(course.getTitle());
+                managed.setDescription(course.getDescription());
+                managed.setContentHash(course.getContentHash());
+                updated(course.getId(), before, result.changedCourseIds, course.getId());
+            }
+        }
+
+        void write(Topic topic, String courseId) {
+            result.topics++;
+            topic.setContentHash(hash(topic.getId(), topic.getTitle(), topic.getOrderIndex(), courseId));
+            StoredRow before = stored.topics.remove(topic.getId());
+            if (before == null) {
+                topic.setCourse(chunk.reference(Course.class, courseId));
+                chunk.persist(topic);
+                inserted(topic.getId(), result.changedTopicIds, courseId);
+            } else if (!topic.getContentHash().equals(before.contentHash())) {
+                Topic managed = chunk.find(Topic.class, topic.getId());
+                managed.setTitle(topic.getTitle());
+                managed.setOrderIndex(topic.getOrderIndex());
+                managed.setCourse(chunk.reference(Course.class, courseId));
+                managed.setContentHash(topic.getContentHash());
+                updated(topic.getId(), before, result.changedTopicIds, courseId);
+            }
+        }
+
+        void write(Subtopic subtopic, String courseId, String topicId) {
+            result.subtopics++;
+            subtopic.setContentHash(hash(subtopic.getId(), subtopic.getTitle(), subtopic.getContent(),
+                    subtopic.getOrderIndex(), topicId));
+            StoredRow before = stored.subtopics.remove(subtopic.getId());
+            if (before == null) {
+                subtopic.setTopic(chunk.reference(Topic.class, topicId));
+                chunk.persist(subtopic);
+                inserted(subtopic.getId(), result.changedSubtopicIds, courseId);
+            } else if (!subtopic.getContentHash().equals(before.contentHash())) {
+                Subtopic managed = chunk.find(Subtopic.class, subtopic.getId());
+                managed.setTitle(subtopic.getTitle());
+                managed.setContent(subtopic.getContent());
+                managed.setOrderIndex(subtopic.getOrderIndex());
+                managed.setTopic(chunk.reference(Topic.class, topicId));
+                managed.setContentHash(subtopic.getContentHash());
+                updated(subtopic.getId(), before, result.changedSubtopicIds, courseId);
+            }
+        }
+
+        private void inserted(String id, Set<String> changedIds, String courseId) {
+            result.inserted++;
+            result.affectedCourseIds.add(courseId);
+            if (!result.fullReload) {
+                changedIds.add(id);
+            }
+        }
+
+        // the row may have moved, so both its old and new course are affected
+        private void updated(String id, StoredRow before, Set<String> changedIds, String courseId) {
+            chunk.touched();
+            result.updated++;
+            result.affectedCourseIds.add(courseId);
+            result.affectedCourseIds.add(before.courseId());
+            changedIds.add(id);
+        }
+
+        void deleteMissing() {
+            int progress = delete(stored.subtopics, Subtopic.class, result.deletedSubtopicIds);
+            delete(stored.topics, Topic.class, null);
+            int enrollments = delete(stored.courses, Course.class, null);
+            chunk.commit();
+            if (progress + enrollments > 0) {
+                log.info("Removed {} progress rows and {} enrollments of deleted catalog entries.",
+                        progress, enrollments);
+            }
+        }
+
+        // returns the number of dependent learner rows removed along with them
+        private int delete(Map<String, StoredRow> missing, Class<?> type, Set<String> deletedIds) {
+            List<String> ids = new ArrayList<>(missing.keySet());
+            int dependents = 0;
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+                List<String> batch = ids.subList(from, Math.min(ids.size(), from + DELETE_BATCH));
+                dependents += chunk.delete(type, batch);
+                for (String id : batch) {
+                    result.affectedCourseIds.add(missing.get(id).courseId());
+                }
+                if (deletedIds != null) {
+                    deletedIds.addAll(batch);
+                }
+            }
+            result.deleted += ids.size();
+            return dependents;
+        }
+    }
+
+    /** The open transaction; committed (and its persistence context dropped) every chunkSize rows. */
+    private final class Chunk implements AutoCloseable {
+
+        private TransactionStatus transaction;
+        private int pending;
+
+        void persist(Object entity) {
+            begin();
+            entityManager.persist(entity);
+            touched();
+        }
+
+        <T> T find(Class<T> type, String id) {
+            begin();
+            return entityManager.find(type, id);
+        }
+
+        // parents may have been committed in an earlier chunk; a reference avoids reloading them
+        <T> T reference(Class<T> type, String id) {
+            begin();
+            return entityManager.getReference(type, id);
+        }
+
+        int delete(Class<?> type, List<String> ids) {
+            begin();
+            String dependents = DEPENDENTS.get(type);
+            int removed = dependents == null ? 0
+                    : entityManager.createQuery(dependents).setParameter("ids", ids).executeUpdate();
+            entityManager.createQuery("delete from " + type.getSimpleName() + " e where e.id in :ids")
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+            commit();
+            return removed;
+        }
+
+        void touched() {
+            if (++pending >= chunkSize) {
+                commit();
+            }
+        }
+
+        void commit() {
+            if (transaction != null) {
+                TransactionStatus committing = transaction;
+                transaction = null;
+                pending = 0;
+                transactionManager.commit(committing);
+            }
+        }
+
+        private void begin() {
+            if (transaction == null) {
+                transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (transaction != null) {
+                transactionManager.rollback(transaction);
+                transaction = null;
+            }
+        }
+    }
+}
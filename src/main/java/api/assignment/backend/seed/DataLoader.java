@@ -1,103 +1,81 @@
 package api.assignment.backend.seed;
 
-import api.assignment.backend.entity.Course;
-import api.assignment.backend.entity.Subtopic;
-import api.assignment.backend.entity.Topic;
-import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.service.CatalogSnapshotService;
+import api.assignment.backend.service.CatalogSyncService;
+import api.assignment.backend.service.CourseOutlineCache;
 import api.assignment.backend.service.SearchService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import api.assignment.backend.startup.StartupTasks;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Schedules the startup work in the background and returns straight away, so the server starts
+ * listening immediately; {@code /actuator/health/readiness} reports when the catalog and the
+ * outline cache are in place.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class DataLoader implements CommandLineRunner {
 
-    private final CourseRepository courseRepository;
-    private final ObjectMapper objectMapper;
+    private final CatalogSyncService catalogSyncService;
+    private final CatalogSnapshotService catalogSnapshotService;
     private final SearchService searchService;
+    private final CourseOutlineCache outlineCache;
+    private final SyntheticDataLoader syntheticDataLoader;
+    private final StartupTasks startupTasks;
+    private final String mode;
+
+    public DataLoader(CatalogSyncService catalogSyncService,
+                      CatalogSnapshotService catalogSnapshotService,
+                      SearchService searchService,
+                      CourseOutlineCache outlineCache,
+                      SyntheticDataLoader syntheticDataLoader,
+                      StartupTasks startupTasks,
+                      @Value("${seed.mode:if-empty}") String mode) {
+        this.catalogSyncService = catalogSyncService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.searchService = searchService;
+        this.outlineCache = outlineCache;
+        this.syntheticDataLoader = syntheticDataLoader;
+        this.startupTasks = startupTasks;
+        this.mode = mode;
+    }
 
     @Override
     public void run(String... args) {
-        if (courseRepository.count() > 0) {
-            log.info("Database already has courses — skipping seed.");
-            return;
+        // connect first, so the change event from seeding/syncing reaches the index
+        CompletableFuture<Void> elasticsearch =
+                startupTasks.schedule("elasticsearch", false, searchService::connectElasticsearch);
+        CompletableFuture<Void> beforeCatalog = elasticsearch;
+        if (syntheticDataLoader.getTarget() == SyntheticDataProperties.Target.JSON) {
+            // written first, so seed.catalog can point at the generated file
+            beforeCatalog = startupTasks.schedule("syntheticData", true, syntheticDataLoader::run, elasticsearch);
         }
-
-        try {
-            JsonNode root = loadJson();
-            JsonNode coursesNode = root.get("courses");
-
-            List<Course> courses = new ArrayList<>();
-            for (JsonNode courseNode : coursesNode) {
-                Course course = parseCourse(courseNode);
-                courses.add(course);
-            }
-
-            courseRepository.saveAll(courses);
-            log.info("Seeded {} courses into the database.", courses.size());
-        } catch (Exception e) {
-            log.error("Failed to seed data: {}", e.getMessage(), e);
+        CompletableFuture<Void> catalog =
+                startupTasks.schedule("catalog", true, this::loadCatalog, beforeCatalog);
+        if (syntheticDataLoader.getTarget() == SyntheticDataProperties.Target.DATABASE) {
+            catalog = startupTasks.schedule("syntheticData", true, syntheticDataLoader::run, catalog);
         }
+        // a current snapshot lets the outline warm-up skip the per-course queries
+        CompletableFuture<Void> snapshot =
+                startupTasks.schedule("catalogSnapshot", false, catalogSnapshotService::load, catalog);
 
-        // indexing after data population
-        searchService.initializeElasticsearch();
+        startupTasks.schedule("searchIndex", false, searchService::prepareIndex, catalog);
+        startupTasks.schedule("outlineCache", true,
+                () -> log.info("Warmed the outline cache for {} courses.", outlineCache.warmUp()), snapshot);
     }
 
-    private JsonNode loadJson() throws Exception {
-        try {
-            InputStream is = new ClassPathResource("seed_data/courses.json").getInputStream();
-            return objectMapper.readTree(is);
-        } catch (Exception e) {
-            File file = new File("seed_data/courses.json");
-            return objectMapper.readTree(file);
-        }
-    }
-
-    private Course parseCourse(JsonNode node) {
-        Course course = Course.builder()
-                .id(node.get("id").asText())
-                .title(node.get("title").asText())
-                .description(node.get("description").asText())
-                .build();
-
-        int topicOrder = 0;
-        for (JsonNode topicNode : node.get("topics")) {
-            Topic topic = parseTopic(topicNode, course, topicOrder++);
-            course.getTopics().add(topic);
-        }
-        return course;
-    }
-
-    private Topic parseTopic(JsonNode node, Course course, int order) {
-        Topic topic = Topic.builder()
-                .id(node.get("id").asText())
-                .title(node.get("title").asText())
-                .orderIndex(order)
-                .course(course)
-                .build();
-
-        int subtopicOrder = 0;
-        for (JsonNode subNode : node.get("subtopics")) {
-            Subtopic subtopic = Subtopic.builder()
-                    .id(subNode.get("id").asText())
-                    .title(subNode.get("title").asText())
-                    .content(subNode.get("content").asText())
-                    .orderIndex(subtopicOrder++)
-                    .topic(topic)
-                    .build();
-            topic.getSubtopics().add(subtopic);
+    private void loadCatalog() {
+        switch (mode) {
+            case "sync" -> catalogSyncService.sync();
+            case "if-empty" -> catalogSyncService.seedIfEmpty();
+            case "off" -> log.info("Catalog seeding disabled (seed.mode=off).");
+            default -> log.warn("Unknown seed.mode '{}'; expected if-empty, sync or off.", mode);
         }
-        return topic;
     }
 }
@@ -0,0 +1,208 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic catalog and learner data for scale testing. Every course, subtopic text and
+ * learner draws from its own random stream derived from the seed and its index, so any single
+ * entity can be regenerated on its own and the output doesn't depend on iteration order.
+ * No Spring or database here; {@link SyntheticDataLoader} writes the output.
+ */
+public final class SyntheticDataGenerator {
+
+    public static final String ID_PREFIX = "syn-";
+    public static final String EMAIL_DOMAIN = "@synthetic.test";
+
+    // fixed, so timestamps are reproducible too
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final String[] WORDS = {
+            "velocity", "acceleration", "force", "energy", "momentum", "mass", "gravity", "friction",
+            "displacement", "vector", "scalar", "motion", "inertia", "power", "work", "torque",
+            "equation", "function", "variable", "derivative", "integral", "limit", "slope", "graph",
+            "polynomial", "matrix", "probability", "sequence", "series", "proof", "theorem", "axiom",
+            "algorithm", "array", "recursion", "complexity", "pointer", "stack", "queue", "tree",
+            "heap", "hash", "sorting", "search", "loop", "compiler", "memory", "cache",
+            "the", "a", "of", "and", "to", "in", "is", "that", "for", "with", "as", "by", "this",
+            "each", "when", "which", "we", "can", "between", "over", "under", "because", "then",
+            "measure", "describe", "compare", "example", "model", "system", "value", "rate",
+            "change", "time", "distance", "direction", "constant", "total", "average", "unit"
+    };
+    private static final String[] TITLE_WORDS = {
+            "Foundations", "Principles", "Applied", "Advanced", "Introduction", "Methods", "Topics",
+            "Mechanics", "Calculus", "Algebra", "Algorithms", "Systems", "Structures", "Analysis",
+            "Dynamics", "Probability", "Programming", "Geometry", "Statistics", "Networks"
+    };
+
+    private final SyntheticDataProperties spec;
+
+    public SyntheticDataGenerator(SyntheticDataProperties spec) {
+        this.spec = spec;
+    }
+
+    public static String courseId(int course) {
+        return String.format("%sc%06d", ID_PREFIX, course);
+    }
+
+    public static String topicId(int course, int topic) {
+        return String.format("%sc%06d-t%03d", ID_PREFIX, course, topic);
+    }
+
+    public static String subtopicId(int course, int topic, int subtopic) {
+        return String.format("%sc%06d-t%03d-s%03d", ID_PREFIX, course, topic, subtopic);
+    }
+
+    public static String email(int user) {
+        return "learner" + user + EMAIL_DOMAIN;
+    }
+
+    public int courseCount() {
+        return spec.getCourses();
+    }
+
+    /** Course {@code index} in the seed-file shape; content is left null unless asked for. */
+    public CourseDetailResponse course(int index, boolean withContent) {
+        SplittableRandom random = random(1, index);
+        List<TopicDto> topics = new ArrayList<>(spec.getTopicsPerCourse());
+        for (int t = 0; t < spec.getTopicsPerCourse(); t++) {
+            List<SubtopicDto> subtopics = new ArrayList<>(spec.getSubtopicsPerTopic());
+            for (int s = 0; s < spec.getSubtopicsPerTopic(); s++) {
+                String title = title(random, 2);
+                subtopics.add(new SubtopicDto(subtopicId(index, t, s), title,
+                        withContent ? content(index, t, s, title) : null));
+            }
+            topics.add(new TopicDto(topicId(index, t), title(random, 2), subtopics));
+        }
+        return new CourseDetailResponse(courseId(index), title(random, 3) + " " + (100 + index % 900),
+                sentence(random, 12 + random.nextInt(20)), topics);
+    }
+
+    /** Markdown-ish body of one subtopic, its length drawn between the configured word bounds. */
+    public String content(int course, int topic, int subtopic, String title) {
+        SplittableRandom random = random(2, ((long) course * spec.getTopicsPerCourse() + topic)
+                * spec.getSubtopicsPerTopic() + subtopic);
+        int range = Math.max(0, spec.getMaxContentWords() - spec.getMinContentWords());
+        double u = random.nextDouble();
+        // skewed towards the short end, with a long tail of big pages
+        int words = spec.getMinContentWords() + (int) (range * u * u);
+
+        StringBuilder text = new StringBuilder(words * 8).append("## ").append(title).append("\n\n");
+        int written = 0;
+        while (written < words) {
+            int n = Math.min(words - written, 8 + random.nextInt(40));
+            if (random.nextInt(5) == 0) {
+                for (int i = 0; i < Math.max(1, n / 6); i++) {
+                    text.append("- **").append(word(random)).append("**: ").append(sentence(random, 5)).append('\n');
+                }
+            } else {
+                text.append(sentence(random, n));
+            }
+            text.append("\n\n");
+            written += n;
+        }
+        return text.toString();
+    }
+
+    /** Users, their enrollments and completions, in user order. */
+    public void learners(LearnerSink sink) throws IOException {
+        int subtopicsPerCourse = spec.getTopicsPerCourse() * spec.getSubtopicsPerTopic();
+        int enrollments = Math.min(spec.getEnrollmentsPerUser(), spec.getCourses());
+        for (int user = 0; user < spec.getUsers(); user++) {
+            SplittableRandom random = random(3, user);
+            sink.user(user, email(user), "Learner " + user);
+
+            int[] chosen = new int[enrollments];
+            for (int e = 0; e < enrollments; e++) {
+                chosen[e] = pickCourse(random, chosen, e);
+                String courseId = courseId(chosen[e]);
+                Instant at = EPOCH.plusSeconds(random.nextLong(Duration.ofDays(365).toSeconds()));
+                sink.enrollment(user, courseId, at);
+
+                // exponential around the configured rate; some learners finish the whole course
+                double fraction = -spec.getCompletionRate() * Math.log(1 - random.nextDouble());
+                int completed = (int) Math.min(subtopicsPerCourse, Math.round(fraction * subtopicsPerCourse));
+                for (int i = 0; i < completed; i++) {
+                    at = at.plusSeconds(300 + random.nextInt(7200));
+                    sink.completion(user, subtopicId(chosen[e], i / spec.getSubtopicsPerTopic(),
+                            i % spec.getSubtopicsPerTopic()), at);
+                }
+            }
+        }
+    }
+
+    // popularity is skewed towards low course indexes, the way a few courses take most enrollments
+    private int pickCourse(SplittableRandom random, int[] chosen, int count) {
+        for (int attempt = 0; attempt < 32; attempt++) {
+            double u = random.nextDouble();
+            int course = (int) (spec.getCourses() * u * u);
+            if (!taken(chosen, count, course)) {
+                return course;
+            }
+        }
+        // nearly every course is already taken; the first free one will do
+        int course = 0;
+        while (taken(chosen, count, course)) {
+            course++;
+        }
+        return course;
+    }
+
+    private static boolean taken(int[] chosen, int count, int course) {
+        for (int i = 0; i < count; i++) {
+            if (chosen[i] == course) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SplittableRandom random(int stream, long index) {
+        return new SplittableRandom(spec.getSeed() * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    private static String title(SplittableRandom random, int words) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            String word = word(random);
+            if (i == 0) {
+                sentence.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                sentence.append(' ').append(word);
+            }
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String word(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    public interface LearnerSink {
+        void user(int user, String email, String name) throws IOException;
+
+        void enrollment(int user, String courseId, Instant enrolledAt) throws IOException;
+
+        void completion(int user, String subtopicId, Instant completedAt) throws IOException;
+    }
+}
@@ -0,0 +1,269 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.config.SyntheticDataProperties;
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes {@link SyntheticDataGenerator} output either straight into Postgres with COPY (one
+ * stream per table, all in a single transaction) or as a catalog file in the seed format, which
+ * then goes through the normal {@code seed.catalog} import/sync path.
+ */
+@Component
+@EnableConfigurationProperties(SyntheticDataProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataLoader {
+
+    private final SyntheticDataProperties properties;
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SyntheticDataProperties.Target getTarget() {
+        return properties.getTarget();
+    }
+
+    public void run() {
+        switch (properties.getTarget()) {
+            case DATABASE -> loadIntoDatabase();
+            case JSON -> writeCatalogJson(Path.of(properties.getOutput()));
+            case NONE -> { }
+        }
+    }
+
+    public Map<String, Long> loadIntoDatabase() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(properties);
+        // one hash for everyone; hashing per user would dominate the run
+        String password = passwordEncoder.encode(properties.getPassword());
+        Map<String, Long> rows = new LinkedHashMap<>();
+        long start = System.currentTimeMillis();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (properties.isReset()) {
+                    reset(connection);
+                }
+                long firstUserId = firstFreeUserId(connection);
+
+                rows.put("courses", copy(connection, "courses (id, title, description, content_hash)", out -> {
+                    for (int c = 0; c < generator.courseCount(); c++) {
+                        CourseDetailResponse course = generator.course(c, false);
+                        out.row(course.getId(), course.getTitle(), course.getDescription(),
+                                CatalogImporter.hash(course.getId(), course.getTitle(), course.getDescription()));
+                    }
+                }));
+                rows.put("topics", copy(connection, "topics (id, title, order_index, content_hash, course_id)", out -> {
+                    for (int c = 0; c < generator.courseCount(); c++) {
+                        CourseDetailResponse course = generator.course(c, false);
+                        for (int t = 0; t < course.getTopics().size(); t++) {
+                            TopicDto topic = course.getTopics().get(t);
+                            out.row(topic.getId(), topic.getTitle(), t,
+                                    CatalogImporter.hash(topic.getId(), topic.getTitle(), t, course.getId()),
+                                    course.getId());
+                        }
+                    }
+                }));
+                rows.put("subtopics", copy(connection, "subtopics (id, title, content, order_index, content_hash, topic_id)", out -> {
+                    for (int c = 0; c < generator.courseCount(); c++) {
+                        for (TopicDto topic : generator.course(c, true).getTopics()) {
+                            for (int s = 0; s < topic.getSubtopics().size(); s++) {
+                                SubtopicDto subtopic = topic.getSubtopics().get(s);
+                                out.row(subtopic.getId(), subtopic.getTitle(), subtopic.getContent(), s,
+                                        CatalogImporter.hash(subtopic.getId(), subtopic.getTitle(),
+                                                subtopic.getContent(), s, topic.getId()),
+                                        topic.getId());
+                            }
+                        }
+                    }
+                }));
+
+                // the learner stream is cheap to regenerate, so each table gets its own pass
+                rows.put("users", copy(connection, "users (id, name, email, password, security_stamp, role)",
+                        out -> generator.learners(new LearnerRows() {
+                            @Override
+                            public void user(int user, String email, String name) throws IOException {
+                                out.row(firstUserId + user, name, email, password,
+                                        UUID.nameUUIDFromBytes(email.getBytes(StandardCharsets.UTF_8)), "USER");
+                            }
+                        })));
+                rows.put("enrollments", copy(connection, "enrollments (user_id, course_id, enrolled_at)",
+                        out -> generator.learners(new LearnerRows() {
+                            @Override
+                            public void enrollment(int user, String courseId, Instant enrolledAt) throws IOException {
+                                out.row(firstUserId + user, courseId, enrolledAt);
+                            }
+                        })));
+                rows.put("subtopic_progress", copy(connection, "subtopic_progress (user_id, subtopic_id, completed_at)",
+                        out -> generator.learners(new LearnerRows() {
+                            @Override
+                            public void completion(int user, String subtopicId, Instant completedAt) throws IOException {
+                                out.row(firstUserId + user, subtopicId, completedAt);
+                            }
+                        })));
+
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load synthetic data: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load synthetic data: " + e.getMessage(), e);
+        }
+
+        userRepository.alignIdSequence();
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        long total = rows.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Loaded synthetic data (seed {}) in {} ms, {} rows/s: {}", properties.getSeed(), elapsed,
+                total * 1000 / elapsed, rows);
+        eventPublisher.publishEvent(new CatalogChangedEvent(true, Set.of(), Set.of(), Set.of(), Set.of(), Set.of()));
+        return rows;
+    }
+
+    public void writeCatalogJson(Path output) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(properties);
+        long start = System.currentTimeMillis();
+        try (OutputStream out = Files.newOutputStream(output);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("courses");
+            for (int c = 0; c < generator.courseCount(); c++) {
+                objectMapper.writeValue(json, generator.course(c, true));
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write synthetic catalog " + output + ": " + e.getMessage(), e);
+        }
+        log.info("Wrote synthetic catalog (seed {}, {} courses) to {} in {} ms.", properties.getSeed(),
+                generator.courseCount(), output.toAbsolutePath(), System.currentTimeMillis() - start);
+    }
+
+    private void reset(Connection connection) throws SQLException {
+        String users = "select id from users where email like '%" + SyntheticDataGenerator.EMAIL_DOMAIN + "'";
+        String ids = "'" + SyntheticDataGenerator.ID_PREFIX + "%'";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("delete from subtopic_progress where subtopic_id like " + ids + " or user_id in (" + users + ")");
+            statement.executeUpdate("delete from enrollments where course_id like " + ids + " or user_id in (" + users + ")");
+            statement.executeUpdate("delete from refresh_tokens where user_id in (" + users + ")");
+            statement.executeUpdate("delete from subtopics where id like " + ids);
+            statement.executeUpdate("delete from topics where id like " + ids);
+            statement.executeUpdate("delete from courses where id like " + ids);
+            statement.executeUpdate("delete from users where email like '%" + SyntheticDataGenerator.EMAIL_DOMAIN + "'");
+        }
+    }
+
+    // past both the highest stored id and whatever users_seq has already handed out
+    private long firstFreeUserId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select greatest(coalesce((select max(id) from users), 0), (select last_value from users_seq))")) {
+            rs.next();
+            return rs.getLong(1) + 1;
+        }
+    }
+
+    private long copy(Connection connection, String table, RowSource source) throws SQLException, IOException {
+        PGCopyOutputStream out = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY " + table + " FROM STDIN", 1 << 16);
+        try {
+            CopyRows rows = new CopyRows(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+            source.write(rows);
+            rows.writer.flush();
+            return out.endCopy();
+        } finally {
+            if (out.isActive()) {
+                out.cancelCopy();
+            }
+        }
+    }
+
+    private interface RowSource {
+        void write(CopyRows rows) throws IOException;
+    }
+
+    // COPY text format: tab-separated, \N for null, backslash escapes
+    private static final class CopyRows {
+        private final Writer writer;
+
+        CopyRows(Writer writer) {
+            this.writer = writer;
+        }
+
+        void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write('\t');
+                }
+                if (values[i] == null) {
+                    writer.write("\\N");
+                    continue;
+                }
+                String value = values[i].toString();
+                for (int j = 0; j < value.length(); j++) {
+                    char ch = value.charAt(j);
+                    switch (ch) {
+                        case '\\' -> writer.write("\\\\");
+                        case '\t' -> writer.write("\\t");
+                        case '\n' -> writer.write("\\n");
+                        case '\r' -> writer.write("\\r");
+                        default -> writer.write(ch);
+                    }
+                }
+            }
+            writer.write('\n');
+        }
+    }
+
+    private abstract static class LearnerRows implements SyntheticDataGenerator.LearnerSink {
+        @Override
+        public void user(int user, String email, String name) throws IOException {
+        }
+
+        @Override
+        public void enrollment(int user, String courseId, Instant enrolledAt) throws IOException {
+        }
+
+        @Override
+        public void completion(int user, String subtopicId, Instant completedAt) throws IOException {
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+// runs once the singletons (and so the schema) exist but before the web server starts, so no
+// request can insert a user with a stale sequence (DataLoader only seeds the catalog)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSequenceAligner implements SmartInitializingSingleton {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        userRepository.alignIdSequence()
+                .ifPresent(value -> log.info("Moved users_seq past existing user ids (now at {}).", value));
+    }
+}
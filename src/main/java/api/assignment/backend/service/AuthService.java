@@ -1,45 +1,199 @@
 package api.assignment.backend.service;
 
+import api.assignment.backend.bulkhead.Bulkhead;
+import api.assignment.backend.config.RateLimitProperties;
 import api.assignment.backend.dto.auth.*;
 import api.assignment.backend.entity.User;
 import api.assignment.backend.exception.DuplicateResourceException;
+import api.assignment.backend.exception.ServiceUnavailableException;
+import api.assignment.backend.exception.TooManyRequestsException;
 import api.assignment.backend.repository.UserRepository;
+import api.assignment.backend.security.AuthenticatedUser;
 import api.assignment.backend.security.JwtTokenProvider;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import api.assignment.backend.security.PasswordHashingService;
+import api.assignment.backend.security.TokenBucketRateLimiter;
+import api.assignment.backend.security.TokenRevocationList;
+import api.assignment.backend.trace.RequestTrace;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashingService passwordHashing;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RateLimitProperties rateLimit;
+    // register/login writes, so BCrypt threads never wait on JDBC
+    private final ExecutorService persistence;
+    private final Executor persistenceOrUnavailable;
+    // compared against when the email is unknown, so both paths cost one BCrypt check
+    private final String unknownUserHash;
+
+    public AuthService(UserRepository userRepository,
+                       JwtTokenProvider jwtTokenProvider,
+                       PasswordHashingService passwordHashing,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationList revocationList,
+                       TokenBucketRateLimiter rateLimiter,
+                       RateLimitProperties rateLimit,
+                       PasswordEncoder passwordEncoder,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.persistence.threads:4}") int persistenceThreads,
+                       @Value("${auth.persistence.queue-capacity:256}") int persistenceQueueCapacity,
+                       @Value("${auth.password.retry-after:1s}") Duration retryAfter) {
+        this.userRepository = userRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordHashing = passwordHashing;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.rateLimiter = rateLimiter;
+        this.rateLimit = rateLimit;
+        this.unknownUserHash = passwordEncoder.encode("unknown-user-placeholder");
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(persistenceThreads, persistenceThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(persistenceQueueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "auth-persistence-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.persistence = ExecutorServiceMetrics.monitor(meterRegistry, executor, "auth.persistence");
+        long retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.persistenceOrUnavailable = task -> {
+            try {
+                persistence.execute(task);
+            } catch (RejectedExecutionException e) {
+                throw new ServiceUnavailableException("Server busy, retry later", retryAfterSeconds);
+            }
+        };
+    }
 
-    public RegisterResponse register(RegisterRequest request) {
+    @PreDestroy
+    void shutdown() {
+        persistence.shutdown();
+    }
+
+    public CompletableFuture<RegisterResponse> register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateResourceException("Email already exists");
         }
 
-        User user = User.builder()
-                .name(request.getEmail().split("@")[0])
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .build();
+        Executor persist = Bulkhead.inheriting(persistenceOrUnavailable);
+        return passwordHashing.encode(request.getPassword()).thenApplyAsync(hash -> {
+            User user = User.builder()
+                    .name(request.getEmail().split("@")[0])
+                    .email(request.getEmail())
+                    .password(hash)
+                    .build();
+
+            user = userRepository.save(user);
+            return new RegisterResponse(user.getId(), user.getEmail(), "User registered successfully");
+        }, persist);
+    }
+
+    public CompletableFuture<LoginResponse> login(LoginRequest request, String clientAddress) {
+        String rateKey = request.getEmail().trim().toLowerCase(Locale.ROOT) + '|' + clientAddress;
+        checkLoginRate(rateKey);
+        User user;
+        try (RequestTrace.Stage stage = RequestTrace.stage("user-lookup")) {
+            user = userRepository.findByEmailOnPrimary(request.getEmail()).orElse(null);
+        }
+        String hash = user != null ? user.getPassword() : unknownUserHash;
+
+        Executor persist = Bulkhead.inheriting(persistenceOrUnavailable);
+        return passwordHashing.matches(request.getPassword(), hash).thenApplyAsync(matches -> {
+            if (user == null || !matches) {
+                throw new BadCredentialsException("Invalid email or password");
+            }
+            resetLoginRate(rateKey);
+            if (passwordHashing.needsUpgrade(user.getPassword())) {
+                upgradeHash(user.getId(), request.getPassword());
+            }
+
+            return tokensFor(user, refreshTokenService.issue(user));
+        }, persist);
+    }
+
+    public LoginResponse refresh(RefreshRequest request) {
+        var rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return tokensFor(rotation.user(), rotation.refreshToken());
+    }
+
+    public void logout(RefreshRequest request, AuthenticatedUser principal) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        if (principal != null) {
+            revocationList.revoke(principal.getTokenId(), principal.getTokenExpiresAt());
+        }
+    }
+
+    // a new stamp fails every refresh token issued so far at its next use; access tokens carry no
+    // server-side state, so apart from the caller's own they stay valid until they expire
+    public void logoutAll(AuthenticatedUser principal) {
+        userRepository.updateSecurityStamp(principal.getId(), UUID.randomUUID().toString());
+        revocationList.revoke(principal.getTokenId(), principal.getTokenExpiresAt());
+    }
 
-        user = userRepository.save(user);
-        return new RegisterResponse(user.getId(), user.getEmail(), "User registered successfully");
+    // keyed by account and address, so someone guessing from elsewhere can't lock the owner out.
+    // Every attempt takes a token up front, which also bounds guesses in flight at once; a
+    // successful login hands them back, so in effect only failures count.
+    private void checkLoginRate(String rateKey) {
+        RateLimitProperties.Limit limit = rateLimit.getLoginPerAccount();
+        if (!rateLimit.isEnabled() || limit == null) {
+            return;
+        }
+        long waitNanos = rateLimiter.tryAcquire(TokenBucketRateLimiter.NO_ROUTE, 'a', rateKey, limit);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Too many login attempts for this account, retry later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        }
+    }
+
+    private void resetLoginRate(String rateKey) {
+        rateLimiter.reset(TokenBucketRateLimiter.NO_ROUTE, 'a', rateKey);
     }
 
-    public LoginResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+    private LoginResponse tokensFor(User user, RefreshTokenService.Issued refreshToken) {
+        String token = jwtTokenProvider.generateToken(AuthenticatedUser.fromUser(user));
+        return new LoginResponse(token, user.getEmail(), jwtTokenProvider.getExpiration() / 1000,
+                refreshToken.token(), refreshTokenService.getRefreshExpirationSeconds());
+    }
 
-        String token = jwtTokenProvider.generateToken(request.getEmail());
-        return new LoginResponse(token, request.getEmail(), jwtTokenProvider.getExpiration() / 1000);
+    // best effort: if the pool is busy the hash simply gets upgraded on a later login
+    private void upgradeHash(Long userId, String rawPassword) {
+        try {
+            passwordHashing.encode(rawPassword)
+                    .thenAcceptAsync(newHash -> userRepository.updatePassword(userId, newHash), persistence)
+                    .exceptionally(e -> {
+                        log.warn("Failed to upgrade password hash for user {}: {}", userId, e.getMessage());
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            log.debug("Skipping password hash upgrade for user {}: {}", userId, e.getMessage());
+        }
     }
 }
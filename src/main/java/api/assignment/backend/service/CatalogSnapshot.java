@@ -0,0 +1,319 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.CourseSummaryDto;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+import api.assignment.backend.dto.search.CourseSearchResult;
+import api.assignment.backend.dto.search.SearchMatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-only, memory-mapped view of a catalog snapshot file written by {@link CatalogSnapshotWriter}.
+ * Nothing is deserialized up front: records are fixed-size int tuples that point into a string
+ * table, and strings are decoded only when a response actually needs them.
+ *
+ * <pre>
+ * header     64 bytes  magic, format, counts, section positions, catalog version (string index), file length
+ * strings    UTF-8 bytes of every string, back to back
+ * courses    courseCount   x (id, title, description, firstTopic, topicCount)
+ * topics     topicCount    x (id, title, firstSubtopic, subtopicCount)
+ * subtopics  subtopicCount x (id, title, content)
+ * offsets    (stringCount + 1) x start of string i, relative to the string section
+ * </pre>
+ *
+ * All values are big-endian ints, string references are indexes into the offset table and -1
+ * means null. Courses are sorted by id so lookups are a binary search.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x43415453; // "CATS"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COURSE_INTS = 5;
+    static final int TOPIC_INTS = 4;
+    static final int SUBTOPIC_INTS = 3;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int courseCount;
+    private final int topicCount;
+    private final int subtopicCount;
+    private final int stringCount;
+    private final int dataPos;
+    private final int coursesPos;
+    private final int topicsPos;
+    private final int subtopicsPos;
+    private final int offsetsPos;
+    private final String catalogVersion;
+
+    private CatalogSnapshot(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(path + " has snapshot format " + buffer.getInt(4) + ", expected " + FORMAT_VERSION);
+        }
+        courseCount = buffer.getInt(8);
+        topicCount = buffer.getInt(12);
+        subtopicCount = buffer.getInt(16);
+        stringCount = buffer.getInt(20);
+        dataPos = buffer.getInt(24);
+        coursesPos = buffer.getInt(28);
+        topicsPos = buffer.getInt(32);
+        subtopicsPos = buffer.getInt(36);
+        offsetsPos = buffer.getInt(40);
+        if (buffer.getInt(48) != buffer.capacity()
+                || offsetsPos + (stringCount + 1L) * Integer.BYTES != buffer.capacity()) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+        catalogVersion = string(buffer.getInt(44));
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new CatalogSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int courseCount() {
+        return courseCount;
+    }
+
+    public int topicCount() {
+        return topicCount;
+    }
+
+    public int subtopicCount() {
+        return subtopicCount;
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    public List<String> courseIds() {
+        List<String> ids = new ArrayList<>(courseCount);
+        for (int c = 0; c < courseCount; c++) {
+            ids.add(string(courseInt(c, 0)));
+        }
+        return ids;
+    }
+
+    public List<CourseSummaryDto> courseSummaries() {
+        List<CourseSummaryDto> courses = new ArrayList<>(courseCount);
+        for (int c = 0; c < courseCount; c++) {
+            int firstTopic = courseInt(c, 3);
+            int topics = courseInt(c, 4);
+            int subtopics = 0;
+            for (int t = firstTopic; t < firstTopic + topics; t++) {
+                subtopics += topicInt(t, 3);
+            }
+            courses.add(new CourseSummaryDto(string(courseInt(c, 0)), string(courseInt(c, 1)),
+                    string(courseInt(c, 2)), topics, subtopics));
+        }
+        return courses;
+    }
+
+    public Optional<CourseDetailResponse> findCourse(String courseId) {
+        int c = indexOf(courseId);
+        if (c < 0) {
+            return Optional.empty();
+        }
+        int firstTopic = courseInt(c, 3);
+        List<TopicDto> topics = new ArrayList<>(courseInt(c, 4));
+        for (int t = firstTopic; t < firstTopic + courseInt(c, 4); t++) {
+            int firstSubtopic = topicInt(t, 2);
+            List<SubtopicDto> subtopics = new ArrayList<>(topicInt(t, 3));
+            for (int s = firstSubtopic; s < firstSubtopic + topicInt(t, 3); s++) {
+                subtopics.add(new SubtopicDto(string(subtopicInt(s, 0)), string(subtopicInt(s, 1)),
+                        string(subtopicInt(s, 2))));
+            }
+            topics.add(new TopicDto(string(topicInt(t, 0)), string(topicInt(t, 1)), subtopics));
+        }
+        return Optional.of(new CourseDetailResponse(courseId, string(courseInt(c, 1)), string(courseInt(c, 2)), topics));
+    }
+
+    // same shape as CourseOutlineCache builds from the database: subtopics only, in display order
+    CourseOutline outline(String courseId) {
+        int c = indexOf(courseId);
+        if (c < 0) {
+            return null;
+        }
+        List<String> subtopicIds = new ArrayList<>();
+        List<String> subtopicTitles = new ArrayList<>();
+        List<String> topicIds = new ArrayList<>();
+        List<String> topicTitles = new ArrayList<>();
+        int firstTopic = courseInt(c, 3);
+        for (int t = firstTopic; t < firstTopic + courseInt(c, 4); t++) {
+            String topicId = string(topicInt(t, 0));
+            String topicTitle = string(topicInt(t, 1));
+            int firstSubtopic = topicInt(t, 2);
+            for (int s = firstSubtopic; s < firstSubtopic + topicInt(t, 3); s++) {
+                subtopicIds.add(string(subtopicInt(s, 0)));
+                subtopicTitles.add(string(subtopicInt(s, 1)));
+                topicIds.add(topicId);
+                topicTitles.add(topicTitle);
+            }
+        }
+        return new CourseOutline(courseId, subtopicIds, subtopicTitles, topicIds, topicTitles);
+    }
+
+    /**
+     * The PostgreSQL fallback search, answered from the mapped file. ASCII queries (the common
+     * case) are matched against the raw UTF-8 bytes, so only matching strings get decoded.
+     */
+    public List<CourseSearchResult> search(String query) {
+        Matcher matcher = new Matcher(query);
+        List<CourseSearchResult> results = new ArrayList<>();
+        for (int c = 0; c < courseCount; c++) {
+            List<SearchMatch> matches = new ArrayList<>();
+            String courseTitle = null;
+
+            if (matcher.matches(courseInt(c, 1))) {
+                courseTitle = string(courseInt(c, 1));
+                matches.add(new SearchMatch("course", null, null, null, courseTitle));
+            }
+            if (matcher.matches(courseInt(c, 2))) {
+                matches.add(new SearchMatch("course", null, null, null, string(courseInt(c, 2))));
+            }
+
+            int firstTopic = courseInt(c, 3);
+            for (int t = firstTopic; t < firstTopic + courseInt(c, 4); t++) {
+                String topicTitle = null;
+                if (matcher.matches(topicInt(t, 1))) {
+                    topicTitle = string(topicInt(t, 1));
+                    matches.add(new SearchMatch("topic", topicTitle, null, null, topicTitle));
+                }
+                int firstSubtopic = topicInt(t, 2);
+                for (int s = firstSubtopic; s < firstSubtopic + topicInt(t, 3); s++) {
+                    boolean titleMatch = matcher.matches(subtopicInt(s, 1));
+                    boolean contentMatch = matcher.matches(subtopicInt(s, 2));
+                    if (!titleMatch && !contentMatch) {
+                        continue;
+                    }
+                    if (topicTitle == null) {
+                        topicTitle = string(topicInt(t, 1));
+                    }
+                    String subtopicId = string(subtopicInt(s, 0));
+                    String subtopicTitle = string(subtopicInt(s, 1));
+                    if (titleMatch) {
+                        matches.add(new SearchMatch("subtopic", topicTitle, subtopicId, subtopicTitle, subtopicTitle));
+                    }
+                    if (contentMatch) {
+                        matches.add(new SearchMatch("content", topicTitle, subtopicId, subtopicTitle,
+                                SearchService.contentSnippet(string(subtopicInt(s, 2)), query)));
+                    }
+                }
+            }
+
+            if (!matches.isEmpty()) {
+                results.add(new CourseSearchResult(string(courseInt(c, 0)),
+                        courseTitle != null ? courseTitle : string(courseInt(c, 1)), matches));
+            }
+        }
+        return results;
+    }
+
+    private int indexOf(String courseId) {
+        int low = 0;
+        int high = courseCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = string(courseInt(mid, 0)).compareTo(courseId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int courseInt(int course, int field) {
+        return buffer.getInt(coursesPos + (course * COURSE_INTS + field) * Integer.BYTES);
+    }
+
+    private int topicInt(int topic, int field) {
+        return buffer.getInt(topicsPos + (topic * TOPIC_INTS + field) * Integer.BYTES);
+    }
+
+    private int subtopicInt(int subtopic, int field) {
+        return buffer.getInt(subtopicsPos + (subtopic * SUBTOPIC_INTS + field) * Integer.BYTES);
+    }
+
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        int start = stringStart(index);
+        byte[] bytes = new byte[stringStart(index + 1) - start];
+        buffer.get(dataPos + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int stringStart(int index) {
+        return buffer.getInt(offsetsPos + index * Integer.BYTES);
+    }
+
+    private final class Matcher {
+        private final String lowerQuery;
+        private final byte[] asciiQuery; // null when the query has non-ASCII characters
+
+        Matcher(String query) {
+            this.lowerQuery = query.toLowerCase(Locale.ROOT);
+            this.asciiQuery = lowerQuery.chars().allMatch(ch -> ch < 0x80)
+                    ? lowerQuery.getBytes(StandardCharsets.US_ASCII)
+                    : null;
+        }
+
+        boolean matches(int index) {
+            if (index < 0) {
+                return false;
+            }
+            if (asciiQuery == null) {
+                return string(index).toLowerCase(Locale.ROOT).contains(lowerQuery);
+            }
+            // multi-byte UTF-8 sequences never contain ASCII bytes, so a byte match is a char match
+            int start = dataPos + stringStart(index);
+            int last = dataPos + stringStart(index + 1) - asciiQuery.length;
+            for (int i = start; i <= last; i++) {
+                int j = 0;
+                while (j < asciiQuery.length && lower(buffer.get(i + j)) == asciiQuery[j]) {
+                    j++;
+                }
+                if (j == asciiQuery.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
@@ -0,0 +1,210 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.catalog.CatalogSnapshotResponse;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.exception.BadRequestException;
+import api.assignment.backend.exception.ServiceUnavailableException;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.TopicRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the catalog snapshot file ({@code catalog.snapshot.path}). A snapshot is only served while
+ * its catalog version matches the database's ({@link CourseRepository#findCatalogVersion}): that
+ * is checked when it is opened, it is dropped as soon as this node sees a catalog change, and
+ * {@link #verify} re-checks periodically for changes made through other nodes.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final CourseRepository courseRepository;
+    private final TopicRepository topicRepository;
+    private final Path path;
+    private final boolean autoExport;
+
+    private final ReentrantLock exportLock = new ReentrantLock();
+    private final ExecutorService exporter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+    // bumped on every catalog change, so an export that raced one is never published
+    private final AtomicLong changes = new AtomicLong();
+    private volatile CatalogSnapshot current;
+
+    public CatalogSnapshotService(CourseRepository courseRepository,
+                                  TopicRepository topicRepository,
+                                  @Value("${catalog.snapshot.path:}") String path,
+                                  @Value("${catalog.snapshot.auto-export:true}") boolean autoExport) {
+        this.courseRepository = courseRepository;
+        this.topicRepository = topicRepository;
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.autoExport = autoExport;
+    }
+
+    /** The snapshot to serve catalog reads from, or null to read from the database. */
+    public @Nullable CatalogSnapshot current() {
+        return current;
+    }
+
+    // startup task: reuse the file if it is still current, otherwise (optionally) write a new one
+    public void load() {
+        if (path == null) {
+            return;
+        }
+        exportLock.lock();
+        try {
+            long changesBefore = changes.get();
+            if (Files.exists(path)) {
+                String version = courseRepository.findCatalogVersion();
+                try {
+                    CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+                    if (snapshot.getCatalogVersion().equals(version) && publish(snapshot, changesBefore)) {
+                        log.info("Serving catalog reads from snapshot {} ({} courses, {} bytes).",
+                                path, snapshot.courseCount(), snapshot.sizeBytes());
+                        return;
+                    }
+                    log.info("Catalog snapshot {} is out of date (snapshot {}, database {}).",
+                            path, snapshot.getCatalogVersion(), version);
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable catalog snapshot: {}", e.getMessage());
+                }
+            }
+        } finally {
+            exportLock.unlock();
+        }
+        // in the background: a first export of a large catalog shouldn't hold up readiness
+        scheduleExport();
+    }
+
+    /** Writes a fresh snapshot from the database and starts serving it. */
+    public CatalogSnapshotResponse export() {
+        if (path == null) {
+            throw new BadRequestException("No catalog snapshot path is configured (catalog.snapshot.path)");
+        }
+        exportLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            long changesBefore = changes.get();
+            String version = courseRepository.findCatalogVersion();
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+            try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(tmp)) {
+                var courses = new ArrayList<>(courseRepository.findSnapshotCourses());
+                // the reader binary-searches with String.compareTo, which need not match the database collation
+                courses.sort(Comparator.comparing(CourseRepository.SnapshotCourseRow::getId));
+                for (var course : courses) {
+                    writer.addCourse(course.getId(), course.getTitle(), course.getDescription());
+                    String topicId = null;
+                    for (var row : topicRepository.findSnapshotRows(course.getId())) {
+                        if (!row.getTopicId().equals(topicId)) {
+                            topicId = row.getTopicId();
+                            writer.addTopic(topicId, row.getTopicTitle());
+                        }
+                        if (row.getSubtopicId() != null) {
+                            writer.addSubtopic(row.getSubtopicId(), row.getSubtopicTitle(), row.getContent());
+                        }
+                    }
+                }
+                // each course was read in its own short query, so confirm nothing moved underneath
+                if (!version.equals(courseRepository.findCatalogVersion())) {
+                    throw new ServiceUnavailableException("The catalog changed while the snapshot was being written", 5);
+                }
+                writer.finish(version);
+            }
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+            publish(snapshot, changesBefore);
+            long elapsed = System.currentTimeMillis() - start;
+            log.info("Wrote catalog snapshot {} ({} courses, {} topics, {} subtopics, {} bytes) in {} ms.",
+                    path, snapshot.courseCount(), snapshot.topicCount(), snapshot.subtopicCount(),
+                    snapshot.sizeBytes(), elapsed);
+            return new CatalogSnapshotResponse(path.toString(), version, snapshot.courseCount(),
+                    snapshot.topicCount(), snapshot.subtopicCount(), snapshot.sizeBytes(), elapsed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write catalog snapshot " + path + ": " + e.getMessage(), e);
+        } finally {
+            exportLock.unlock();
+        }
+    }
+
+    // runs before the caches evict, so nothing reloads from the stale snapshot
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate();
+        scheduleExport();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.verify-interval:60s}")
+    public void verify() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            String version = courseRepository.findCatalogVersion();
+            if (!snapshot.getCatalogVersion().equals(version)) {
+                log.info("Catalog changed (snapshot {}, database {}); reading from the database until a new snapshot is written.",
+                        snapshot.getCatalogVersion(), version);
+                invalidate();
+                scheduleExport();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to verify the catalog snapshot version: {}", e.getMessage());
+        }
+    }
+
+    private synchronized boolean publish(CatalogSnapshot snapshot, long changesBefore) {
+        if (changes.get() != changesBefore) {
+            return false;
+        }
+        current = snapshot;
+        return true;
+    }
+
+    private synchronized void invalidate() {
+        changes.incrementAndGet();
+        current = null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        exporter.shutdownNow();
+    }
+
+    private void scheduleExport() {
+        if (path == null || !autoExport) {
+            return;
+        }
+        exporter.execute(() -> {
+            try {
+                export();
+            } catch (Exception e) {
+                log.error("Failed to refresh the catalog snapshot: {}", e.getMessage());
+            }
+        });
+    }
+}
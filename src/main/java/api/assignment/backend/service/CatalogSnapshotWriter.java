@@ -0,0 +1,177 @@
+package api.assignment.backend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes the format described on {@link CatalogSnapshot}. Strings are streamed to the file as
+ * they arrive, so memory holds only the fixed-size records and string offsets; the tables and
+ * the header go in at {@link #finish}. Courses must be added in id order, each followed by its
+ * topics and each topic by its subtopics.
+ */
+final class CatalogSnapshotWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+
+    private final IntList courses = new IntList();
+    private final IntList topics = new IntList();
+    private final IntList subtopics = new IntList();
+    private final IntList stringOffsets = new IntList();
+    private long dataLength;
+    private String lastCourseId;
+
+    CatalogSnapshotWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        channel.position(CatalogSnapshot.HEADER_SIZE);
+    }
+
+    void addCourse(String id, String title, String description) throws IOException {
+        // CatalogSnapshot finds courses by binary search over the ids as written
+        if (lastCourseId != null && lastCourseId.compareTo(id) >= 0) {
+            throw new IllegalArgumentException("Course '" + id + "' added after '" + lastCourseId
+                    + "'; courses must be added in id order");
+        }
+        lastCourseId = id;
+        courses.add(string(id), string(title), string(description), topics.size() / CatalogSnapshot.TOPIC_INTS, 0);
+    }
+
+    void addTopic(String id, String title) throws IOException {
+        topics.add(string(id), string(title), subtopics.size() / CatalogSnapshot.SUBTOPIC_INTS, 0);
+        courses.increment(courses.size() - 1);
+    }
+
+    void addSubtopic(String id, String title, String content) throws IOException {
+        subtopics.add(string(id), string(title), string(content));
+        topics.increment(topics.size() - 1);
+    }
+
+    int courseCount() {
+        return courses.size() / CatalogSnapshot.COURSE_INTS;
+    }
+
+    int topicCount() {
+        return topics.size() / CatalogSnapshot.TOPIC_INTS;
+    }
+
+    int subtopicCount() {
+        return subtopics.size() / CatalogSnapshot.SUBTOPIC_INTS;
+    }
+
+    void finish(String catalogVersion) throws IOException {
+        int version = string(catalogVersion);
+        stringOffsets.add((int) dataLength);
+        flush();
+
+        int dataPos = CatalogSnapshot.HEADER_SIZE;
+        long coursesPos = dataPos + dataLength;
+        long topicsPos = coursesPos + (long) courses.size() * Integer.BYTES;
+        long subtopicsPos = topicsPos + (long) topics.size() * Integer.BYTES;
+        long offsetsPos = subtopicsPos + (long) subtopics.size() * Integer.BYTES;
+        long length = offsetsPos + (long) stringOffsets.size() * Integer.BYTES;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot would be " + length + " bytes; a single mapping is limited to 2 GB");
+        }
+
+        writeInts(courses);
+        writeInts(topics);
+        writeInts(subtopics);
+        writeInts(stringOffsets);
+        flush();
+
+        ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_SIZE)
+                .putInt(CatalogSnapshot.MAGIC)
+                .putInt(CatalogSnapshot.FORMAT_VERSION)
+                .putInt(courseCount())
+                .putInt(topicCount())
+                .putInt(subtopicCount())
+                .putInt(stringOffsets.size() - 1)
+                .putInt(dataPos)
+                .putInt((int) coursesPos)
+                .putInt((int) topicsPos)
+                .putInt((int) subtopicsPos)
+                .putInt((int) offsetsPos)
+                .putInt(version)
+                .putInt((int) length);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int string(String value) throws IOException {
+        if (value == null) {
+            return -1;
+        }
+        stringOffsets.add((int) dataLength);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dataLength += bytes.length;
+        if (dataLength > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot strings exceed 2 GB");
+        }
+        for (int written = 0; written < bytes.length; ) {
+            if (!out.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(out.remaining(), bytes.length - written);
+            out.put(bytes, written, n);
+            written += n;
+        }
+        return stringOffsets.size() - 1;
+    }
+
+    private void writeInts(IntList ints) throws IOException {
+        for (int i = 0; i < ints.size(); i++) {
+            if (out.remaining() < Integer.BYTES) {
+                flush();
+            }
+            out.putInt(ints.get(i));
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private static final class IntList {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int... more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        void increment(int index) {
+            values[index]++;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
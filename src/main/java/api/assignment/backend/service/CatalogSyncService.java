@@ -0,0 +1,85 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.catalog.CatalogSyncResponse;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.seed.CatalogImporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads the catalog file ({@code seed.catalog}) into the database, either only when the catalog
+ * is empty or as a diff against what is stored. Either way a {@code CatalogChangedEvent} is
+ * published afterwards so caches and the search index refresh just the affected entries.
+ */
+@Service
+@Slf4j
+public class CatalogSyncService {
+
+    private final CatalogImporter catalogImporter;
+    private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Resource catalog;
+    // one import at a time; a second caller waits rather than diffing against half-written rows
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CatalogSyncService(CatalogImporter catalogImporter,
+                              CourseRepository courseRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${seed.catalog:classpath:seed_data/courses.json}") Resource catalog) {
+        this.catalogImporter = catalogImporter;
+        this.courseRepository = courseRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalog = catalog;
+    }
+
+    public void seedIfEmpty() {
+        lock.lock();
+        try {
+            if (courseRepository.count() > 0) {
+                log.info("Database already has courses — skipping seed.");
+                return;
+            }
+            run(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CatalogSyncResponse sync() {
+        lock.lock();
+        try {
+            CatalogImporter.Result result = run(true);
+            return new CatalogSyncResponse(result.getInserted(), result.getUpdated(), result.getDeleted(),
+                    result.getUnchanged(), result.getAffectedCourseIds());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CatalogImporter.Result run(boolean diff) {
+        Resource source = catalog.exists() ? catalog : new FileSystemResource("seed_data/courses.json");
+        long start = System.currentTimeMillis();
+        CatalogImporter.Result result;
+        try (InputStream in = source.getInputStream()) {
+            result = diff ? catalogImporter.syncCatalog(in) : catalogImporter.importCatalog(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read catalog " + source.getDescription() + ": " + e.getMessage(), e);
+        }
+
+        log.info("{} {} from {} in {} ms.", diff ? "Synced" : "Seeded", result, source.getDescription(),
+                System.currentTimeMillis() - start);
+        if (result.hasChanges()) {
+            eventPublisher.publishEvent(result.toEvent());
+        }
+        return result;
+    }
+}
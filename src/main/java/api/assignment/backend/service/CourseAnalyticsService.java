@@ -0,0 +1,185 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.analytics.AnalyticsRebuildResponse;
+import api.assignment.backend.dto.analytics.CourseFunnelResponse;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.event.EnrollmentCreatedEvent;
+import api.assignment.backend.event.SubtopicCompletedEvent;
+import api.assignment.backend.exception.ResourceNotFoundException;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.EnrollmentRepository;
+import api.assignment.backend.repository.SubtopicProgressRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Per-course completion funnels kept up to date from enrollment/completion events, so reads
+ * never touch {@code subtopic_progress}. A funnel is built from the database the first time a
+ * course is asked for, and {@link #rebuild} recomputes it from scratch to verify (and correct)
+ * the incremental state.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseAnalyticsService {
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final SubtopicProgressRepository progressRepository;
+    private final CourseOutlineCache outlineCache;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public CourseFunnelResponse getFunnel(String courseId) {
+        Slot slot = slots.get(courseId);
+        if (slot != null) {
+            synchronized (slot) {
+                if (slot.funnel != null) {
+                    return slot.funnel.view();
+                }
+            }
+        }
+        return rebuild(courseId).getFunnel();
+    }
+
+    public AnalyticsRebuildResponse rebuild(String courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course with id '" + courseId + "' does not exist");
+        }
+
+        Slot slot = slots.computeIfAbsent(courseId, k -> new Slot());
+        slot.rebuildLock.lock();
+        try {
+            Instant cutoff = Instant.now();
+            synchronized (slot) {
+                slot.pending = new ArrayList<>();
+            }
+
+            CourseFunnel fresh;
+            try {
+                outlineCache.evict(courseId);
+                fresh = compute(outlineCache.get(courseId), cutoff);
+            } catch (RuntimeException e) {
+                synchronized (slot) {
+                    slot.pending = null;
+                }
+                throw e;
+            }
+
+            boolean drift;
+            synchronized (slot) {
+                // anything stamped at or after the cutoff wasn't visible to the queries above
+                for (PendingUpdate update : slot.pending) {
+                    if (!update.at().isBefore(cutoff)) {
+                        update.apply().accept(fresh);
+                    }
+                }
+                drift = slot.funnel != null && !slot.funnel.sameAggregates(fresh);
+                slot.funnel = fresh;
+                slot.pending = null;
+            }
+            if (drift) {
+                log.warn("Analytics for course '{}' drifted from the database; replaced with rebuilt aggregates.", courseId);
+            }
+            return new AnalyticsRebuildResponse(courseId, drift, fresh.view());
+        } finally {
+            slot.rebuildLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${analytics.rebuild-cron:0 0 3 * * *}")
+    public void rebuildAll() {
+        for (String courseId : List.copyOf(slots.keySet())) {
+            try {
+                rebuild(courseId);
+            } catch (Exception e) {
+                log.error("Failed to rebuild analytics for course '{}': {}", courseId, e.getMessage());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        apply(event.getCourseId(), event.getEnrolledAt(), funnel -> funnel.addEnrollments(1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubtopicCompleted(SubtopicCompletedEvent event) {
+        apply(event.getCourseId(), event.getCompletedAt(), funnel -> {
+            funnel.addCompletions(event.getSubtopicId(), 1);
+            if (event.isCourseCompleted()) {
+                funnel.recordCourseCompletion(event.getEnrolledAt(), event.getCompletedAt());
+            }
+        });
+    }
+
+    // the funnel's steps follow the course outline; rebuild the ones that were loaded
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        for (String courseId : event.isFullReload() ? List.copyOf(slots.keySet()) : event.getAffectedCourseIds()) {
+            if (!slots.containsKey(courseId)) {
+                continue;
+            }
+            try {
+                rebuild(courseId);
+            } catch (ResourceNotFoundException e) {
+                slots.remove(courseId);
+            } catch (Exception e) {
+                log.error("Failed to rebuild analytics for course '{}': {}", courseId, e.getMessage());
+            }
+        }
+    }
+
+    private void apply(String courseId, Instant at, Consumer<CourseFunnel> update) {
+        Slot slot = slots.get(courseId);
+        if (slot == null) {
+            return; // not loaded yet, the initial build reads it from the database
+        }
+        synchronized (slot) {
+            if (slot.funnel != null) {
+                update.accept(slot.funnel);
+            }
+            if (slot.pending != null) {
+                slot.pending.add(new PendingUpdate(at, update));
+            }
+        }
+    }
+
+    private CourseFunnel compute(CourseOutline outline, Instant cutoff) {
+        CourseFunnel funnel = new CourseFunnel(outline, cutoff);
+        String courseId = outline.getCourseId();
+
+        funnel.addEnrollments(enrollmentRepository.countByCourseIdAndEnrolledAtBefore(courseId, cutoff));
+        if (outline.size() == 0) {
+            return funnel;
+        }
+
+        for (var row : progressRepository.countCompletionsBySubtopic(outline.subtopicIds(), cutoff)) {
+            funnel.addCompletions(row.getSubtopicId(), row.getCompletions());
+        }
+        for (var span : enrollmentRepository.findCompletionSpans(courseId, outline.subtopicIds(), outline.size(), cutoff)) {
+            funnel.recordCourseCompletion(span.getEnrolledAt(), span.getCompletedAt());
+        }
+        return funnel;
+    }
+
+    private static final class Slot {
+        private final ReentrantLock rebuildLock = new ReentrantLock();
+        // both guarded by the slot's monitor
+        private CourseFunnel funnel;
+        private List<PendingUpdate> pending;
+    }
+
+    private record PendingUpdate(Instant at, Consumer<CourseFunnel> apply) {}
+}
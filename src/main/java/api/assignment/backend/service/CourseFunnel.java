@@ -0,0 +1,135 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.analytics.CourseFunnelResponse;
+import api.assignment.backend.dto.analytics.FunnelStepDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Incrementally maintained completion funnel for one course. Not thread-safe on its own;
+ * {@link CourseAnalyticsService} serializes access per course.
+ */
+final class CourseFunnel {
+
+    // durations below 2^SUB_BITS seconds are counted exactly, longer ones in 2^SUB_BITS buckets per
+    // power of two, so a reported median is within ~3% of the true one
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final CourseOutline outline;
+    private final Instant rebuiltAt;
+    private final long[] completions;
+    private long enrollments;
+    private long courseCompletions;
+
+    // histogram of seconds-to-complete for the median; its size depends on the longest duration
+    // seen (at most ~1,900 buckets), not on the number of completions
+    private long[] durations = new long[0];
+
+    private CourseFunnelResponse view;
+
+    CourseFunnel(CourseOutline outline, Instant rebuiltAt) {
+        this.outline = outline;
+        this.rebuiltAt = rebuiltAt;
+        this.completions = new long[outline.size()];
+    }
+
+    void addEnrollments(long count) {
+        enrollments += count;
+        view = null;
+    }
+
+    void addCompletions(String subtopicId, long count) {
+        int ordinal = outline.ordinalOf(subtopicId);
+        if (ordinal < 0) {
+            return; // catalog changed underneath us, the next rebuild picks it up
+        }
+        completions[ordinal] += count;
+        view = null;
+    }
+
+    void recordCourseCompletion(Instant enrolledAt, Instant completedAt) {
+        courseCompletions++;
+        long seconds = Math.max(0, Duration.between(enrolledAt, completedAt).toSeconds());
+        int bucket = bucketOf(seconds);
+        if (bucket >= durations.length) {
+            durations = Arrays.copyOf(durations, bucket + 1);
+        }
+        durations[bucket]++;
+        view = null;
+    }
+
+    boolean sameAggregates(CourseFunnel other) {
+        return enrollments == other.enrollments
+                && courseCompletions == other.courseCompletions
+                && Arrays.equals(completions, other.completions)
+                && Objects.equals(median(), other.median());
+    }
+
+    CourseFunnelResponse view() {
+        if (view == null) {
+            view = buildView();
+        }
+        return view;
+    }
+
+    private Long median() {
+        if (courseCompletions == 0) {
+            return null;
+        }
+        return (durationAt((courseCompletions - 1) / 2) + durationAt(courseCompletions / 2)) / 2;
+    }
+
+    // the rank-th shortest duration (0-based), as the middle of its bucket
+    private long durationAt(long rank) {
+        long seen = 0;
+        for (int bucket = 0; bucket < durations.length; bucket++) {
+            seen += durations[bucket];
+            if (seen > rank) {
+                return midpointOf(bucket);
+            }
+        }
+        throw new IllegalStateException("rank " + rank + " beyond " + seen + " durations");
+    }
+
+    static int bucketOf(long seconds) {
+        if (seconds < SUB_BUCKETS) {
+            return (int) seconds;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(seconds) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (seconds >>> shift) - SUB_BUCKETS;
+    }
+
+    static long midpointOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long start = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return start + ((1L << shift) - 1) / 2;
+    }
+
+    private CourseFunnelResponse buildView() {
+        List<FunnelStepDto> steps = new ArrayList<>(completions.length);
+        long previous = enrollments;
+        for (int i = 0; i < completions.length; i++) {
+            long dropOff = Math.max(0, previous - completions[i]);
+            double rate = previous == 0 ? 0 : Math.round((double) dropOff / previous * 10000.0) / 100.0;
+            steps.add(new FunnelStepDto(
+                    outline.subtopicIdAt(i),
+                    outline.topicIdAt(outline.topicIndexOf(i)),
+                    completions[i],
+                    dropOff,
+                    rate
+            ));
+            previous = completions[i];
+        }
+        return new CourseFunnelResponse(outline.getCourseId(), enrollments, courseCompletions,
+                median(), List.copyOf(steps), rebuiltAt);
+    }
+}
@@ -0,0 +1,126 @@
+package api.assignment.backend.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, flattened view of a course's structure: every subtopic id in topic/subtopic
+ * order, plus the topic boundaries. Built once per course and shared by the progress features
+ * so they don't have to walk the lazy entity graph on every request.
+ */
+public final class CourseOutline {
+
+    private final String courseId;
+    private final String[] subtopicIds;
+    private final String[] subtopicTitles;
+    private final String[] topicIds;
+    private final String[] topicTitles;
+    // subtopics of topic i live at ordinals [topicStart[i], topicStart[i + 1])
+    private final int[] topicStart;
+    private final int[] topicOfOrdinal;
+    private final Map<String, Integer> ordinals;
+
+    CourseOutline(String courseId, List<String> subtopicIds, List<String> subtopicTitles,
+                  List<String> topicOfSubtopic, List<String> topicTitleOfSubtopic) {
+        this.courseId = courseId;
+        this.subtopicIds = subtopicIds.toArray(String[]::new);
+        this.subtopicTitles = subtopicTitles.toArray(String[]::new);
+        this.topicOfOrdinal = new int[this.subtopicIds.length];
+        this.ordinals = new HashMap<>(this.subtopicIds.length * 2);
+
+        String[] topics = new String[this.subtopicIds.length];
+        String[] titles = new String[this.subtopicIds.length];
+        int[] starts = new int[this.subtopicIds.length + 1];
+        int topicCount = 0;
+        for (int i = 0; i < this.subtopicIds.length; i++) {
+            String topicId = topicOfSubtopic.get(i);
+            if (topicCount == 0 || !topics[topicCount - 1].equals(topicId)) {
+                topics[topicCount] = topicId;
+                titles[topicCount] = topicTitleOfSubtopic.get(i);
+                starts[topicCount] = i;
+                topicCount++;
+            }
+            topicOfOrdinal[i] = topicCount - 1;
+            ordinals.put(this.subtopicIds[i], i);
+        }
+        starts[topicCount] = this.subtopicIds.length;
+
+        this.topicIds = Arrays.copyOf(topics, topicCount);
+        this.topicTitles = Arrays.copyOf(titles, topicCount);
+        this.topicStart = Arrays.copyOf(starts, topicCount + 1);
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public int size() {
+        return subtopicIds.length;
+    }
+
+    public List<String> subtopicIds() {
+        return List.of(subtopicIds);
+    }
+
+    public String subtopicIdAt(int ordinal) {
+        return subtopicIds[ordinal];
+    }
+
+    public String subtopicTitleAt(int ordinal) {
+        return subtopicTitles[ordinal];
+    }
+
+    /** Returns the position of the subtopic in course order, or -1 if it isn't part of this course. */
+    public int ordinalOf(String subtopicId) {
+        Integer ordinal = ordinals.get(subtopicId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public int topicCount() {
+        return topicIds.length;
+    }
+
+    public String topicIdAt(int topicIndex) {
+        return topicIds[topicIndex];
+    }
+
+    public String topicTitleAt(int topicIndex) {
+        return topicTitles[topicIndex];
+    }
+
+    public int topicIndexOf(int ordinal) {
+        return topicOfOrdinal[ordinal];
+    }
+
+    public int topicStart(int topicIndex) {
+        return topicStart[topicIndex];
+    }
+
+    public int topicEnd(int topicIndex) {
+        return topicStart[topicIndex + 1];
+    }
+
+    /** Returns the ordinal of the first subtopic not in {@code completedIds}, or -1 if all are. */
+    public int firstIncomplete(Collection<String> completedIds) {
+        for (int i = 0; i < subtopicIds.length; i++) {
+            if (!completedIds.contains(subtopicIds[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Counts how many subtopics of the given topic are in {@code completedIds}. */
+    public int countCompletedInTopic(int topicIndex, Collection<String> completedIds) {
+        int count = 0;
+        for (int i = topicStart[topicIndex]; i < topicStart[topicIndex + 1]; i++) {
+            if (completedIds.contains(subtopicIds[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,86 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class CourseOutlineCache {
+
+    private final CourseRepository courseRepository;
+    private final SubtopicRepository subtopicRepository;
+    private final CatalogSnapshotService catalogSnapshots;
+
+    private final Map<String, CourseOutline> outlines = new ConcurrentHashMap<>();
+    // bumped before every eviction, so a load that overlapped a catalog change isn't cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public CourseOutline get(String courseId) {
+        CourseOutline outline = outlines.get(courseId);
+        if (outline != null) {
+            return outline;
+        }
+        long loadedAt = generation.get();
+        CourseOutline loaded = load(courseId);
+        // the check runs under the entry's lock, which the eviction that follows a bump also takes
+        CourseOutline cached = outlines.compute(courseId, (id, current) ->
+                current != null || generation.get() != loadedAt ? current : loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    /** Loads every course's outline ahead of the first requests; returns how many were loaded. */
+    public int warmUp() {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        List<String> courseIds = snapshot != null ? snapshot.courseIds() : courseRepository.findAllIds();
+        courseIds.forEach(this::get);
+        return courseIds.size();
+    }
+
+    public void evict(String courseId) {
+        generation.incrementAndGet();
+        outlines.remove(courseId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.isFullReload()) {
+            outlines.clear();
+        } else {
+            event.getAffectedCourseIds().forEach(outlines::remove);
+        }
+    }
+
+    private CourseOutline load(String courseId) {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        if (snapshot != null) {
+            CourseOutline outline = snapshot.outline(courseId);
+            if (outline != null) {
+                return outline;
+            }
+        }
+
+        var rows = subtopicRepository.findOutlineByCourseId(courseId);
+        List<String> subtopicIds = new ArrayList<>(rows.size());
+        List<String> subtopicTitles = new ArrayList<>(rows.size());
+        List<String> topicIds = new ArrayList<>(rows.size());
+        List<String> topicTitles = new ArrayList<>(rows.size());
+        for (var row : rows) {
+            subtopicIds.add(row.getSubtopicId());
+            subtopicTitles.add(row.getSubtopicTitle());
+            topicIds.add(row.getTopicId());
+            topicTitles.add(row.getTopicTitle());
+        }
+        return new CourseOutline(courseId, subtopicIds, subtopicTitles, topicIds, topicTitles);
+    }
+}
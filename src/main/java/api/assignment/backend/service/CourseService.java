@@ -4,20 +4,53 @@ import api.assignment.backend.dto.course.*;
 import api.assignment.backend.entity.Course;
 import api.assignment.backend.exception.ResourceNotFoundException;
 import api.assignment.backend.repository.CourseRepository;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CourseService {
 
     private final CourseRepository courseRepository;
+    private final CatalogSnapshotService catalogSnapshots;
+    private final TransactionTemplate readOnlyTransaction;
 
+    public CourseService(CourseRepository courseRepository,
+                         CatalogSnapshotService catalogSnapshots,
+                         PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.catalogSnapshots = catalogSnapshots;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // SUPPORTS: snapshot reads never take a connection. The database path opens its own
+    // transaction, since under SUPPORTS each repository call would get (and close) a session of
+    // its own and leave the lazy topic/subtopic collections detached.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CourseListResponse getAllCourses() {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        if (snapshot != null) {
+            return new CourseListResponse(snapshot.courseSummaries());
+        }
+        return readOnlyTransaction.execute(status -> loadAllCourses());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CourseDetailResponse getCourseById(String courseId) {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        if (snapshot != null) {
+            return snapshot.findCourse(courseId).orElseThrow(() -> notFound(courseId));
+        }
+        return readOnlyTransaction.execute(status -> loadCourse(courseId));
+    }
+
+    private CourseListResponse loadAllCourses() {
         List<CourseSummaryDto> courses = courseRepository.findAll().stream()
                 .map(c -> new CourseSummaryDto(
                         c.getId(),
@@ -30,10 +63,9 @@ public class CourseService {
         return new CourseListResponse(courses);
     }
 
-    public CourseDetailResponse getCourseById(String courseId) {
+    private CourseDetailResponse loadCourse(String courseId) {
         Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Course with id '" + courseId + "' does not exist"));
+                .orElseThrow(() -> notFound(courseId));
 
         List<TopicDto> topics = course.getTopics().stream()
                 .map(t -> new TopicDto(
@@ -47,4 +79,8 @@ public class CourseService {
 
         return new CourseDetailResponse(course.getId(), course.getTitle(), course.getDescription(), topics);
     }
+
+    private static ResourceNotFoundException notFound(String courseId) {
+        return new ResourceNotFoundException("Course with id '" + courseId + "' does not exist");
+    }
 }
@@ -0,0 +1,129 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.leaderboard.LeaderboardEntryDto;
+import api.assignment.backend.dto.leaderboard.LeaderboardResponse;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.event.SubtopicCompletedEvent;
+import api.assignment.backend.exception.ResourceNotFoundException;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.SubtopicProgressRepository;
+import api.assignment.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private static final int MAX_TOP = 100;
+
+    private final CourseRepository courseRepository;
+    private final SubtopicProgressRepository progressRepository;
+    private final UserRepository userRepository;
+    private final CourseOutlineCache outlineCache;
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    public LeaderboardResponse getLeaderboard(String courseId, int top, Long userId) {
+        LeaderboardTree tree = board(courseId);
+        int limit = Math.max(1, Math.min(top, MAX_TOP));
+
+        List<LeaderboardTree.Node> leaders = tree.top(limit);
+
+        LeaderboardTree.Node mine = null;
+        int myRank = 0;
+        if (userId != null) {
+            mine = tree.entryOf(userId);
+            myRank = mine == null ? 0 : tree.rankOf(userId);
+        }
+
+        List<Long> userIds = new ArrayList<>(leaders.size() + 1);
+        leaders.forEach(n -> userIds.add(n.userId));
+        if (mine != null) {
+            userIds.add(mine.userId);
+        }
+        Map<Long, String> names = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getName, (a, b) -> a));
+
+        List<LeaderboardEntryDto> entries = new ArrayList<>(leaders.size());
+        for (int i = 0; i < leaders.size(); i++) {
+            entries.add(toDto(leaders.get(i), i + 1, names::get));
+        }
+
+        return new LeaderboardResponse(courseId, tree.size(), entries,
+                mine == null ? null : toDto(mine, myRank, names::get));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubtopicCompleted(SubtopicCompletedEvent event) {
+        Board board = boards.get(event.getCourseId());
+        if (board != null) {
+            board.tree.record(event.getUserId(), event.getCourseCompleted(), event.getCompletedAt());
+        }
+    }
+
+    // counts are per outline, so a changed course is dropped and reloaded on its next read
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            boards.clear();
+        } else {
+            event.getAffectedCourseIds().forEach(boards::remove);
+        }
+    }
+
+    private LeaderboardTree board(String courseId) {
+        Board board = boards.get(courseId);
+        if (board == null) {
+            if (!courseRepository.existsById(courseId)) {
+                throw new ResourceNotFoundException("Course with id '" + courseId + "' does not exist");
+            }
+            board = boards.computeIfAbsent(courseId, k -> new Board());
+        }
+        if (!board.loaded) {
+            load(courseId, board);
+        }
+        return board.tree;
+    }
+
+    // the board is registered before loading, so completions committed meanwhile are recorded
+    // directly; record() only moves counts forward, so the order of the two doesn't matter.
+    // A lock rather than a monitor because the query below would pin a virtual thread's carrier.
+    private void load(String courseId, Board board) {
+        board.loadLock.lock();
+        try {
+            if (board.loaded) {
+                return;
+            }
+            CourseOutline outline = outlineCache.get(courseId);
+            if (outline.size() > 0) {
+                for (var row : progressRepository.summarizeByUser(outline.subtopicIds())) {
+                    board.tree.record(row.getUserId(), (int) row.getCompletions(), row.getLastCompletedAt());
+                }
+            }
+            board.loaded = true;
+        } finally {
+            board.loadLock.unlock();
+        }
+    }
+
+    private static LeaderboardEntryDto toDto(LeaderboardTree.Node node, int rank, Function<Long, String> names) {
+        return new LeaderboardEntryDto(rank, node.userId, names.apply(node.userId), node.completed, node.reachedAt);
+    }
+
+    private static final class Board {
+        private final LeaderboardTree tree = new LeaderboardTree();
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private volatile boolean loaded;
+    }
+}
@@ -0,0 +1,177 @@
+package api.assignment.backend.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic treap of learners for one course, ordered by completed subtopics (desc),
+ * then by when that count was reached (asc), then by user id. Subtree sizes make both
+ * "top N" and "rank of user" logarithmic. All methods are synchronized; none of them do I/O.
+ */
+final class LeaderboardTree {
+
+    static final class Node {
+        final long userId;
+        final int completed;
+        final Instant reachedAt;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(long userId, int completed, Instant reachedAt, int priority) {
+            this.userId = userId;
+            this.completed = completed;
+            this.reachedAt = reachedAt;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Node> byUser = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Records that the user has {@code completed} subtopics as of {@code reachedAt}. Counts only
+     * move forward, so replays and out-of-order updates are ignored.
+     */
+    synchronized void record(long userId, int completed, Instant reachedAt) {
+        Node current = byUser.get(userId);
+        if (current != null) {
+            if (current.completed >= completed) {
+                return;
+            }
+            root = delete(root, current);
+        }
+        Node node = new Node(userId, completed, reachedAt, random.nextInt());
+        Node[] parts = split(root, node);
+        root = merge(merge(parts[0], node), parts[1]);
+        byUser.put(userId, node);
+    }
+
+    /** Drops the user from the board; false if they weren't on it. */
+    synchronized boolean remove(long userId) {
+        Node current = byUser.remove(userId);
+        if (current == null) {
+            return false;
+        }
+        root = delete(root, current);
+        return true;
+    }
+
+    synchronized List<Node> top(int limit) {
+        List<Node> result = new ArrayList<>(Math.min(limit, byUser.size()));
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node t = root;
+        while ((t != null || !stack.isEmpty()) && result.size() < limit) {
+            while (t != null) {
+                stack.push(t);
+                t = t.left;
+            }
+            t = stack.pop();
+            result.add(t);
+            t = t.right;
+        }
+        return result;
+    }
+
+    /** Returns the 1-based rank of the user, or 0 if they haven't completed anything yet. */
+    synchronized int rankOf(long userId) {
+        Node node = byUser.get(userId);
+        if (node == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node t = root;
+        while (t != null) {
+            int c = compare(node, t);
+            if (c < 0) {
+                t = t.left;
+            } else {
+                rank += size(t.left) + 1;
+                if (c == 0) {
+                    return rank;
+                }
+                t = t.right;
+            }
+        }
+        throw new IllegalStateException("Leaderboard index out of sync for user " + userId);
+    }
+
+    synchronized Node entryOf(long userId) {
+        return byUser.get(userId);
+    }
+
+    synchronized int size() {
+        return byUser.size();
+    }
+
+    private static int compare(Node a, Node b) {
+        int c = Integer.compare(b.completed, a.completed);
+        if (c != 0) {
+            return c;
+        }
+        c = a.reachedAt.compareTo(b.reachedAt);
+        return c != 0 ? c : Long.compare(a.userId, b.userId);
+    }
+
+    // [0] holds every node ordered before key, [1] the rest
+    private static Node[] split(Node t, Node key) {
+        if (t == null) {
+            return new Node[2];
+        }
+        Node[] parts;
+        if (compare(t, key) < 0) {
+            parts = split(t.right, key);
+            t.right = parts[0];
+            parts[0] = update(t);
+        } else {
+            parts = split(t.left, key);
+            t.left = parts[1];
+            parts[1] = update(t);
+        }
+        return parts;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private static Node delete(Node t, Node key) {
+        int c = compare(key, t);
+        if (c == 0) {
+            return merge(t.left, t.right);
+        }
+        if (c < 0) {
+            t.left = delete(t.left, key);
+        } else {
+            t.right = delete(t.right, key);
+        }
+        return update(t);
+    }
+
+    private static Node update(Node t) {
+        t.size = size(t.left) + size(t.right) + 1;
+        return t;
+    }
+
+    private static int size(Node t) {
+        return t == null ? 0 : t.size;
+    }
+}
@@ -2,69 +2,158 @@ package api.assignment.backend.service;
 
 import api.assignment.backend.dto.enrollment.ProgressResponse;
 import api.assignment.backend.dto.progress.CompletedItemDto;
+import api.assignment.backend.dto.progress.NextSubtopicResponse;
 import api.assignment.backend.dto.progress.SubtopicCompleteResponse;
 import api.assignment.backend.dto.progress.TopicProgressDto;
 import api.assignment.backend.entity.Course;
 import api.assignment.backend.entity.Enrollment;
 import api.assignment.backend.entity.Subtopic;
 import api.assignment.backend.entity.SubtopicProgress;
+import api.assignment.backend.event.SubtopicCompletedEvent;
 import api.assignment.backend.exception.NotEnrolledException;
 import api.assignment.backend.exception.ResourceNotFoundException;
 import api.assignment.backend.repository.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProgressService {
 
     private final SubtopicProgressRepository progressRepository;
     private final SubtopicRepository subtopicRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
-    private final UserRepository userRepository;
+    private final CourseOutlineCache outlineCache;
+    private final ApplicationEventPublisher eventPublisher;
+    // time inside the service; the commit and serialization show up in http.server.requests
+    private final Timer markCompleteTimer;
+    private final Timer getProgressTimer;
+
+    public ProgressService(SubtopicProgressRepository progressRepository,
+                           SubtopicRepository subtopicRepository,
+                           EnrollmentRepository enrollmentRepository,
+                           CourseRepository courseRepository,
+                           CourseOutlineCache outlineCache,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.progressRepository = progressRepository;
+        this.subtopicRepository = subtopicRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.outlineCache = outlineCache;
+        this.eventPublisher = eventPublisher;
+        this.markCompleteTimer = operationTimer(meterRegistry, "mark-complete");
+        this.getProgressTimer = operationTimer(meterRegistry, "get-progress");
+    }
 
-    public SubtopicCompleteResponse markComplete(String email, String subtopicId) {
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    @Transactional
+    public SubtopicCompleteResponse markComplete(Long userId, String subtopicId) {
+        return markCompleteTimer.record(() -> doMarkComplete(userId, subtopicId));
+    }
 
+    private SubtopicCompleteResponse doMarkComplete(Long userId, String subtopicId) {
         Subtopic subtopic = subtopicRepository.findById(subtopicId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Subtopic with id '" + subtopicId + "' does not exist"));
 
         String courseId = subtopic.getTopic().getCourse().getId();
 
-        if (!enrollmentRepository.existsByUserIdAndCourseId(user.getId(), courseId)) {
-            throw new NotEnrolledException(
-                    "You must be enrolled in this course to mark subtopics as complete");
-        }
+        Enrollment enrollment = enrollmentRepository.findByUserIdAndCourseId(userId, courseId)
+                .orElseThrow(() -> new NotEnrolledException(
+                        "You must be enrolled in this course to mark subtopics as complete"));
 
         // Idempotent — return existing if already completed
-        SubtopicProgress progress = progressRepository
-                .findByUserIdAndSubtopicId(user.getId(), subtopicId)
-                .orElseGet(() -> progressRepository.save(
-                        SubtopicProgress.builder()
-                                .userId(user.getId())
-                                .subtopicId(subtopicId)
-                                .build()
-                ));
+        Optional<SubtopicProgress> existing = progressRepository.findByUserIdAndSubtopicId(userId, subtopicId);
+        if (existing.isPresent()) {
+            return new SubtopicCompleteResponse(subtopicId, true, existing.get().getCompletedAt());
+        }
+
+        SubtopicProgress progress = progressRepository.save(
+                SubtopicProgress.builder()
+                        .userId(userId)
+                        .subtopicId(subtopicId)
+                        .build()
+        );
+
+        publishCompleted(enrollment, courseId, progress);
 
         return new SubtopicCompleteResponse(subtopicId, true, progress.getCompletedAt());
     }
 
-    public ProgressResponse getProgress(String email, Long enrollmentId) {
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    // the completion is saved either way: a missing event only leaves the listeners' aggregates
+    // behind until they next rebuild, while failing here would roll the write back
+    private void publishCompleted(Enrollment enrollment, String courseId, SubtopicProgress progress) {
+        SubtopicCompletedEvent event;
+        try {
+            event = completedEvent(enrollment, courseId, progress);
+        } catch (RuntimeException e) {
+            log.warn("Could not build the completion event for subtopic '{}': {}", progress.getSubtopicId(), e.toString());
+            return;
+        }
+        if (event == null) {
+            log.warn("Subtopic '{}' is not in the outline of course '{}'; no completion event published.",
+                    progress.getSubtopicId(), courseId);
+            return;
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    // listeners only see the event after commit, so the counts here are what they'll observe
+    private SubtopicCompletedEvent completedEvent(Enrollment enrollment, String courseId, SubtopicProgress progress) {
+        CourseOutline outline = outlineCache.get(courseId);
+        int ordinal = outline.ordinalOf(progress.getSubtopicId());
+        if (ordinal < 0) {
+            // the subtopic was added after the outline was cached
+            outlineCache.evict(courseId);
+            outline = outlineCache.get(courseId);
+            ordinal = outline.ordinalOf(progress.getSubtopicId());
+            if (ordinal < 0) {
+                return null;
+            }
+        }
+        Set<String> completedIds = new HashSet<>(
+                progressRepository.findCompletedSubtopicIds(progress.getUserId(), outline.subtopicIds()));
+
+        int topicIndex = outline.topicIndexOf(ordinal);
+
+        return new SubtopicCompletedEvent(
+                enrollment.getId(),
+                progress.getUserId(),
+                courseId,
+                outline.topicIdAt(topicIndex),
+                progress.getSubtopicId(),
+                enrollment.getEnrolledAt(),
+                progress.getCompletedAt(),
+                outline.countCompletedInTopic(topicIndex, completedIds),
+                outline.topicEnd(topicIndex) - outline.topicStart(topicIndex),
+                completedIds.size(),
+                outline.size()
+        );
+    }
+
+    // one session for the lazy topic/subtopic collections (open-in-view is off)
+    @Transactional(readOnly = true)
+    public ProgressResponse getProgress(Long userId, Long enrollmentId) {
+        return getProgressTimer.record(() -> doGetProgress(userId, enrollmentId));
+    }
 
+    private ProgressResponse doGetProgress(Long userId, Long enrollmentId) {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Enrollment with id '" + enrollmentId + "' does not exist"));
 
-        if (!enrollment.getUserId().equals(user.getId())) {
+        if (!enrollment.getUserId().equals(userId)) {
             throw new NotEnrolledException("You do not have access to this enrollment");
         }
 
@@ -79,7 +168,7 @@ public class ProgressService {
         int totalSubtopics = allSubtopicIds.size();
 
         List<SubtopicProgress> completed = progressRepository
-                .findAllByUserIdAndSubtopicIdIn(user.getId(), allSubtopicIds);
+                .findAllByUserIdAndSubtopicIdIn(userId, allSubtopicIds);
 
         Set<String> completedIds = completed.stream()
                 .map(SubtopicProgress::getSubtopicId)
@@ -123,4 +212,44 @@ public class ProgressService {
                 completedItems
         );
     }
+
+    public NextSubtopicResponse getNextSubtopic(Long userId, Long enrollmentId) {
+        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Enrollment with id '" + enrollmentId + "' does not exist"));
+
+        if (!enrollment.getUserId().equals(userId)) {
+            throw new NotEnrolledException("You do not have access to this enrollment");
+        }
+
+        CourseOutline outline = outlineCache.get(enrollment.getCourseId());
+        Set<String> completedIds = outline.size() == 0 ? Set.of()
+                : new HashSet<>(progressRepository.findCompletedSubtopicIds(userId, outline.subtopicIds()));
+
+        int next = outline.firstIncomplete(completedIds);
+        if (next < 0) {
+            return new NextSubtopicResponse(enrollmentId, outline.getCourseId(), true,
+                    null, null, null, null, null, outline.size());
+        }
+
+        int topicIndex = outline.topicIndexOf(next);
+        return new NextSubtopicResponse(
+                enrollmentId,
+                outline.getCourseId(),
+                false,
+                outline.topicIdAt(topicIndex),
+                outline.topicTitleAt(topicIndex),
+                outline.subtopicIdAt(next),
+                outline.subtopicTitleAt(next),
+                next + 1,
+                outline.size()
+        );
+    }
+
+    private static Timer operationTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("progress.operations")
+                .description("Progress service latency")
+                .tag("operation", operation)
+                .register(registry);
+    }
 }
@@ -0,0 +1,193 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.progress.ProgressDelta;
+import api.assignment.backend.dto.progress.SubtopicCompletedDelta;
+import api.assignment.backend.dto.progress.TopicCompletedDelta;
+import api.assignment.backend.entity.Enrollment;
+import api.assignment.backend.event.SubtopicCompletedEvent;
+import api.assignment.backend.exception.NotEnrolledException;
+import api.assignment.backend.exception.ResourceNotFoundException;
+import api.assignment.backend.repository.EnrollmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * In-process fan-out of progress deltas to SSE subscribers, keyed by enrollment.
+ *
+ * Idle subscribers hold nothing but their emitter; the buffer is only allocated once an event
+ * is queued, and it is bounded — when a slow client falls behind the oldest deltas are dropped
+ * (the client can always resync with a full {@code getProgress}). Sends happen on a small
+ * shared dispatcher pool, never on the thread that committed the completion.
+ */
+@Service
+@Slf4j
+public class ProgressStreamService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final LongFunction<SseEmitter> emitters;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+
+    @Autowired
+    public ProgressStreamService(EnrollmentRepository enrollmentRepository,
+                                 @Value("${progress.stream.buffer-size:16}") int bufferSize,
+                                 @Value("${progress.stream.timeout:30m}") Duration timeout,
+                                 @Value("${progress.stream.dispatcher-threads:2}") int dispatcherThreads) {
+        this(enrollmentRepository, bufferSize, timeout, dispatcherThreads, SseEmitter::new);
+    }
+
+    // emitters stands in for new SseEmitter(timeout) in tests
+    ProgressStreamService(EnrollmentRepository enrollmentRepository, int bufferSize, Duration timeout,
+                          int dispatcherThreads, LongFunction<SseEmitter> emitters) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.emitters = emitters;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, r -> {
+            Thread t = new Thread(r, "progress-sse-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public SseEmitter subscribe(Long userId, Long enrollmentId) {
+        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Enrollment with id '" + enrollmentId + "' does not exist"));
+
+        if (!enrollment.getUserId().equals(userId)) {
+            throw new NotEnrolledException("You do not have access to this enrollment");
+        }
+
+        SseEmitter emitter = emitters.apply(timeoutMillis);
+        Subscriber subscriber = new Subscriber(enrollmentId, emitter);
+
+        subscribers.computeIfAbsent(enrollmentId, k -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubtopicCompleted(SubtopicCompletedEvent event) {
+        List<Subscriber> targets = subscribers.get(event.getEnrollmentId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+
+        // built once and shared by every subscriber of this enrollment
+        List<Set<ResponseBodyEmitter.DataWithMediaType>> batch = new ArrayList<>(3);
+        batch.add(SseEmitter.event()
+                .name("subtopic-completed")
+                .data(new SubtopicCompletedDelta(event.getSubtopicId(), event.getTopicId(), event.getCompletedAt()),
+                        MediaType.APPLICATION_JSON)
+                .build());
+        if (event.isTopicCompleted()) {
+            batch.add(SseEmitter.event()
+                    .name("topic-completed")
+                    .data(new TopicCompletedDelta(event.getTopicId()), MediaType.APPLICATION_JSON)
+                    .build());
+        }
+        batch.add(SseEmitter.event()
+                .name("progress")
+                .data(new ProgressDelta(event.getCourseCompleted(), event.getCourseTotal(),
+                        event.getCompletionPercentage()), MediaType.APPLICATION_JSON)
+                .build());
+
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(batch);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(s -> s.emitter.complete()));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.enrollmentId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private final class Subscriber {
+
+        private final Long enrollmentId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+
+        Subscriber(Long enrollmentId, SseEmitter emitter) {
+            this.enrollmentId = enrollmentId;
+            this.emitter = emitter;
+        }
+
+        void offer(List<Set<ResponseBodyEmitter.DataWithMediaType>> events) {
+            synchronized (this) {
+                if (buffer == null) {
+                    buffer = new ArrayDeque<>(bufferSize);
+                }
+                for (var event : events) {
+                    if (buffer.size() == bufferSize) {
+                        buffer.pollFirst();
+                    }
+                    buffer.addLast(event);
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> next;
+                    synchronized (this) {
+                        next = buffer.pollFirst();
+                        if (next == null) {
+                            buffer = null;
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    emitter.send(next);
+                }
+            } catch (Exception e) {
+                log.debug("Dropping SSE subscriber for enrollment {}: {}", enrollmentId, e.getMessage());
+                draining.set(false);
+                remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.entity.RefreshToken;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.repository.RefreshTokenRepository;
+import api.assignment.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens. Only a SHA-256 of each token is stored. Every refresh revokes
+ * the presented token and issues a new one in the same family; presenting an already-rotated
+ * token is treated as theft and revokes the whole family.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${jwt.refresh-expiration:30d}") Duration refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    public record Issued(String token, Instant expiresAt) {}
+
+    public record Rotation(User user, Issued refreshToken) {}
+
+    @Transactional
+    public Issued issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (current.getRevokedAt() != null) {
+            throw reused(current, now);
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null || !Objects.equals(user.getSecurityStamp(), current.getSecurityStamp())) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        // the read above doesn't lock, so two refreshes with the same token can both get here;
+        // only the one whose update revokes the row may issue a successor
+        if (refreshTokenRepository.revokeIfActive(current.getId(), now) != 1) {
+            throw reused(current, now);
+        }
+        return new Rotation(user, issue(user, current.getFamilyId()));
+    }
+
+    private BadCredentialsException reused(RefreshToken token, Instant now) {
+        log.warn("Rotated refresh token reused for user {}; revoking its family.", token.getUserId());
+        refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+        return new BadCredentialsException("Invalid refresh token");
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    public long getRefreshExpirationSeconds() {
+        return refreshExpiration.toSeconds();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private Issued issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plus(refreshExpiration);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(raw))
+                .familyId(familyId)
+                .userId(user.getId())
+                .securityStamp(user.getSecurityStamp())
+                .expiresAt(expiresAt)
+                .build());
+        return new Issued(raw, expiresAt);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.repository.SubtopicRepository.SearchDocumentRow;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk-indexes subtopic documents as a three-stage pipeline: a reader pages rows out of Postgres
+ * by keyset (subtopic id, one short transaction per page), a builder turns them into bulk
+ * operations and cuts batches by payload size, and N senders issue the bulk requests
+ * concurrently. The stages hand off through bounded queues, so a slow cluster holds the reader
+ * back instead of the catalog piling up in memory. Items the cluster rejects with a retryable
+ * status (429, 5xx) are resent on their own with exponential backoff; the rest of the batch
+ * isn't sent twice.
+ */
+@Component
+@Slf4j
+public class SearchIndexingPipeline {
+
+    private static final List<SearchDocumentRow> END_OF_ROWS = List.of();
+    private static final Batch END_OF_BATCHES = new Batch(List.of(), 0);
+    // action line, field names and JSON punctuation around the field values
+    private static final int DOCUMENT_OVERHEAD_BYTES = 256;
+
+    private final @Nullable ElasticsearchClient esClient;
+    private final int pageSize;
+    private final int senders;
+    private final int queueCapacity;
+    private final long maxBatchBytes;
+    private final int maxBatchDocuments;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    private final Timer runSucceeded;
+    private final Timer runFailed;
+    private final Timer bulkSucceeded;
+    private final Timer bulkItemErrors;
+    private final Timer bulkFailed;
+    private final Counter documentsIndexed;
+    private final Counter documentsFailed;
+    private final Counter documentsRetried;
+
+    public SearchIndexingPipeline(@Nullable ElasticsearchClient esClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${search.indexing.page-size:1000}") int pageSize,
+                                  @Value("${search.indexing.senders:4}") int senders,
+                                  @Value("${search.indexing.queue-capacity:8}") int queueCapacity,
+                                  @Value("${search.indexing.max-batch-bytes:5242880}") long maxBatchBytes,
+                                  @Value("${search.indexing.max-batch-documents:5000}") int maxBatchDocuments,
+                                  @Value("${search.indexing.max-retries:3}") int maxRetries,
+                                  @Value("${search.indexing.initial-backoff:200ms}") Duration initialBackoff) {
+        this.esClient = esClient;
+        this.pageSize = pageSize;
+        this.senders = senders;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchDocuments = maxBatchDocuments;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+
+        this.runSucceeded = runTimer(meterRegistry, "success");
+        this.runFailed = runTimer(meterRegistry, "failure");
+        // success: every item accepted; item-errors: some items rejected; failure: the request itself failed
+        this.bulkSucceeded = bulkTimer(meterRegistry, "success");
+        this.bulkItemErrors = bulkTimer(meterRegistry, "item-errors");
+        this.bulkFailed = bulkTimer(meterRegistry, "failure");
+        this.documentsIndexed = documentCounter(meterRegistry, "indexed");
+        this.documentsFailed = documentCounter(meterRegistry, "failed");
+        this.documentsRetried = documentCounter(meterRegistry, "retried");
+    }
+
+    /** Where documents come from: rows with a subtopic id greater than {@code afterId}, in id order. */
+    @FunctionalInterface
+    public interface DocumentSource {
+        List<SearchDocumentRow> page(String afterId, int limit);
+    }
+
+    public record Stats(long documents, long indexed, long failed, long retried, long batches, long elapsedMillis) {
+        public double docsPerSecond() {
+            return elapsedMillis == 0 ? indexed : indexed * 1000.0 / elapsedMillis;
+        }
+    }
+
+    /** Runs the pipeline to completion on the calling thread's behalf; blocks until every batch is sent. */
+    public Stats run(String index, DocumentSource source) {
+        if (esClient == null) {
+            throw new IllegalStateException("Elasticsearch client is not configured");
+        }
+
+        Run run = new Run(index);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(senders + 2, r -> {
+            Thread t = new Thread(r, "search-index-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> stages = new ArrayList<>();
+            stages.add(executor.submit(() -> run.read(source)));
+            stages.add(executor.submit(run::build));
+            for (int i = 0; i < senders; i++) {
+                stages.add(executor.submit(run::send));
+            }
+            for (Future<?> stage : stages) {
+                stage.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (Exception e) {
+            run.fail(e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        (run.failure.get() == null ? runSucceeded : runFailed).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Stats stats = new Stats(run.documents.get(), run.indexed.get(), run.failed.get(), run.retried.get(),
+                run.batches.get(), elapsedNanos / 1_000_000);
+        log.info("Indexed {}/{} documents into '{}' in {} ms ({} docs/s): {} batches, {} failed, {} retried.",
+                stats.indexed(), stats.documents(), index, stats.elapsedMillis(),
+                Math.round(stats.docsPerSecond()), stats.batches(), stats.failed(), stats.retried());
+        if (run.failure.get() != null) {
+            throw new IllegalStateException("Indexing into '" + index + "' failed: "
+                    + run.failure.get().getMessage(), run.failure.get());
+        }
+        return stats;
+    }
+
+    private static Map<String, Object> document(SearchDocumentRow row) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("courseId", row.getCourseId());
+        doc.put("courseTitle", row.getCourseTitle());
+        doc.put("courseDescription", row.getCourseDescription());
+        doc.put("topicTitle", row.getTopicTitle());
+        doc.put("subtopicId", row.getSubtopicId());
+        doc.put("subtopicTitle", row.getSubtopicTitle());
+        doc.put("content", row.getContent());
+        return doc;
+    }
+
+    // close enough to the serialized size for cutting batches; content dominates and is mostly ASCII
+    private static long estimateBytes(SearchDocumentRow row) {
+        return DOCUMENT_OVERHEAD_BYTES + length(row.getCourseId()) + length(row.getCourseTitle())
+                + length(row.getCourseDescription()) + length(row.getTopicTitle())
+                + 2L * length(row.getSubtopicId()) + length(row.getSubtopicTitle()) + length(row.getContent());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static Timer runTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("search.indexing.runs")
+                .description("Duration of a whole indexing pipeline run")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer bulkTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("search.indexing.bulk")
+                .description("Duration of one Elasticsearch bulk request")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter documentCounter(MeterRegistry registry, String result) {
+        return Counter.builder("search.indexing.documents")
+                .description("Documents sent to Elasticsearch by the indexing pipeline")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static boolean retryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private record Batch(List<BulkOperation> operations, long bytes) {}
+
+    /** State shared by the stages of one pipeline run. */
+    private final class Run {
+
+        private final String index;
+        private final BlockingQueue<List<SearchDocumentRow>> rows = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Batch> batchQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicLong documents = new AtomicLong();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+
+        Run(String index) {
+            this.index = index;
+        }
+
+        void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        boolean failed() {
+            return failure.get() != null;
+        }
+
+        void read(DocumentSource source) {
+            try {
+                String after = "";
+                while (!failed()) {
+                    List<SearchDocumentRow> page = source.page(after, pageSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    documents.addAndGet(page.size());
+                    if (!handOff(rows, page)) {
+                        break;
+                    }
+                    after = page.get(page.size() - 1).getSubtopicId();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                fail(e);
+            } finally {
+                handOffQuietly(rows, END_OF_ROWS);
+            }
+        }
+
+        void build() {
+            try {
+                List<BulkOperation> operations = new ArrayList<>();
+                long bytes = 0;
+                while (true) {
+                    List<SearchDocumentRow> page = rows.take();
+                    if (page == END_OF_ROWS) {
+                        break;
+                    }
+                    for (SearchDocumentRow row : page) {
+                        Map<String, Object> doc = document(row);
+                        operations.add(BulkOperation.of(op -> op
+                                .index(idx -> idx.index(index).id(row.getSubtopicId()).document(doc))));
+                        bytes += estimateBytes(row);
+                        if (bytes >= maxBatchBytes || operations.size() >= maxBatchDocuments) {
+                            if (!handOff(batchQueue, new Batch(operations, bytes))) {
+                                return;
+                            }
+                            operations = new ArrayList<>();
+                            bytes = 0;
+                        }
+                    }
+                }
+                if (!operations.isEmpty()) {
+                    handOff(batchQueue, new Batch(operations, bytes));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                fail(e);
+            } finally {
+                for (int i = 0; i < senders; i++) {
+                    handOffQuietly(batchQueue, END_OF_BATCHES);
+                }
+            }
+        }
+
+        void send() {
+            try {
+                while (true) {
+                    Batch batch = batchQueue.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        if (failed()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    if (batch == END_OF_BATCHES) {
+                        return;
+                    }
+                    batches.incrementAndGet();
+                    sendWithRetry(batch.operations());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void sendWithRetry(List<BulkOperation> operations) throws InterruptedException {
+            List<BulkOperation> pending = operations;
+            for (int attempt = 0; ; attempt++) {
+                List<BulkOperation> retry = new ArrayList<>();
+                String lastError = null;
+                long start = System.nanoTime();
+                try {
+                    List<BulkOperation> sending = pending;
+                    BulkResponse response = esClient.bulk(BulkRequest.of(b -> b.operations(sending)));
+                    (response.errors() ? bulkItemErrors : bulkSucceeded).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    List<BulkResponseItem> items = response.items();
+                    for (int i = 0; i < items.size(); i++) {
+                        BulkResponseItem item = items.get(i);
+                        if (item.error() == null) {
+                            indexed.incrementAndGet();
+                            documentsIndexed.increment();
+                        } else if (retryable(item.status())) {
+                            retry.add(sending.get(i));
+                            lastError = item.error().reason();
+                        } else {
+                            failed.incrementAndGet();
+                            documentsFailed.increment();
+                            log.debug("Document '{}' rejected: {}", item.id(), item.error().reason());
+                        }
+                    }
+                } catch (Exception e) {
+                    // the whole request failed (connection, timeout, cluster unavailable)
+                    bulkFailed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    retry = pending;
+                    lastError = e.getMessage();
+                }
+
+                if (retry.isEmpty()) {
+                    return;
+                }
+                if (attempt >= maxRetries) {
+                    failed.addAndGet(retry.size());
+                    documentsFailed.increment(retry.size());
+                    log.warn("Giving up on {} documents after {} retries: {}", retry.size(), maxRetries, lastError);
+                    return;
+                }
+                retried.addAndGet(retry.size());
+                documentsRetried.increment(retry.size());
+                Thread.sleep(initialBackoffMillis << attempt);
+                pending = retry;
+            }
+        }
+
+        // blocks while the next stage is behind, but gives up once any stage has failed, since the
+        // consumer may be gone
+        private <T> boolean handOff(BlockingQueue<T> queue, T item) throws InterruptedException {
+            while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                if (failed()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private <T> void handOffQuietly(BlockingQueue<T> queue, T marker) {
+            try {
+                handOff(queue, marker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -4,59 +4,254 @@ import api.assignment.backend.dto.search.*;
 import api.assignment.backend.entity.Course;
 import api.assignment.backend.entity.Subtopic;
 import api.assignment.backend.entity.Topic;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.exception.ServiceUnavailableException;
 import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import api.assignment.backend.trace.RequestTrace;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HighlightField;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.lang.Nullable;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class SearchService {
 
     private static final String INDEX_NAME = "course_content";
 
-    @Nullable //why is this deprecated
-    private final ElasticsearchClient esClient;
+    // search.requests engine tag: what answered the query
+    private static final String ENGINE_ELASTICSEARCH = "elasticsearch";
+    private static final String ENGINE_SNAPSHOT = "snapshot";
+    private static final String ENGINE_POSTGRESQL = "postgresql";
+    private static final String ENGINE_FALLBACK_AFTER_ERROR = "fallback-after-error";
+    // search.fallbacks reason tag: why Elasticsearch wasn't used
+    private static final String REASON_UNAVAILABLE = "unavailable";
+    private static final String REASON_INDEX_NOT_READY = "index-not-ready";
+    private static final String REASON_ERROR = "error";
+
+    private final @Nullable ElasticsearchClient esClient;
     private final CourseRepository courseRepository;
+    private final SubtopicRepository subtopicRepository;
+    private final SearchIndexingPipeline indexingPipeline;
+    private final CatalogSnapshotService catalogSnapshots;
+    private final boolean reindexOnStartup;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<String, Timer> searchTimers = new HashMap<>();
+    private final Map<String, Counter> fallbacks = new HashMap<>();
+
+    private volatile boolean esAvailable = false;
+    // searches stay on PostgreSQL until the index has been (re)built
+    private volatile boolean indexReady = false;
+    private volatile boolean rebuildPending = false;
+    // set once the startup tasks reach prepareIndex; the reconnect check waits for the catalog
+    private volatile boolean started = false;
+    // one full rebuild at a time (startup, admin reindex, reconnect)
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    public SearchService(@Nullable ElasticsearchClient esClient,
+                         CourseRepository courseRepository,
+                         SubtopicRepository subtopicRepository,
+                         SearchIndexingPipeline indexingPipeline,
+                         CatalogSnapshotService catalogSnapshots,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${search.reindex-on-startup:false}") boolean reindexOnStartup) {
+        this.esClient = esClient;
+        this.courseRepository = courseRepository;
+        this.subtopicRepository = subtopicRepository;
+        this.indexingPipeline = indexingPipeline;
+        this.catalogSnapshots = catalogSnapshots;
+        this.reindexOnStartup = reindexOnStartup;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        for (String engine : List.of(ENGINE_ELASTICSEARCH, ENGINE_SNAPSHOT, ENGINE_POSTGRESQL, ENGINE_FALLBACK_AFTER_ERROR)) {
+            searchTimers.put(engine, Timer.builder("search.requests")
+                    .description("Search latency by the engine that answered")
+                    .tag("engine", engine)
+                    .register(meterRegistry));
+        }
+        for (String reason : List.of(REASON_UNAVAILABLE, REASON_INDEX_NOT_READY, REASON_ERROR)) {
+            fallbacks.put(reason, Counter.builder("search.fallbacks")
+                    .description("Searches not answered by Elasticsearch")
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+    }
 
-    private boolean esAvailable = false;
-
-  // called by data loader after its done populating the data. (cannot rely on post construct for first time startup)
-    public void initializeElasticsearch() {
+    // runs before the catalog is seeded/synced, so the resulting CatalogChangedEvent updates
+    // just the changed documents of an existing index
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void connectElasticsearch() {
         if (esClient == null) {
             log.info("Elasticsearch client is null — using PostgreSQL fallback for search.");
             return;
         }
         try {
             esClient.ping();
+            rebuildPending = reindexOnStartup || !esClient.indices().exists(e -> e.index(INDEX_NAME)).value();
             esAvailable = true;
-            log.info("Elasticsearch is available. Indexing course content...");
-            indexAllCourses();
         } catch (Exception e) {
             log.warn("Elasticsearch not reachable: {}. Using PostgreSQL fallback.", e.getMessage());
         }
     }
 
+    // runs once the catalog is loaded; a missing index is built from scratch
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void prepareIndex() {
+        started = true;
+        if (!esAvailable || indexReady) {
+            return; // unreachable, or a full reload during seeding already rebuilt it
+        }
+        if (rebuildPending) {
+            log.info("Elasticsearch is available. Indexing course content...");
+            indexAllCourses();
+        } else {
+            log.info("Elasticsearch is available, using the existing '{}' index.", INDEX_NAME);
+            indexReady = true;
+        }
+    }
+
+    public boolean isIndexReady() {
+        return esAvailable && indexReady;
+    }
+
+    /**
+     * Retries a cluster that was unreachable at startup or a rebuild that failed. Catalog changes
+     * made meanwhile never reached the index, so once the cluster answers it is rebuilt in full.
+     */
+    @Scheduled(fixedDelayString = "${search.reconnect-interval:60s}",
+            initialDelayString = "${search.reconnect-interval:60s}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconnect() {
+        if (!started || esClient == null || isIndexReady() || !rebuilding.tryLock()) {
+            return;
+        }
+        try {
+            if (!esAvailable) {
+                if (!reachable()) {
+                    return;
+                }
+                log.info("Elasticsearch is reachable again. Rebuilding the '{}' index...", INDEX_NAME);
+                esAvailable = true;
+            }
+            indexAllCourses();
+        } catch (ServiceUnavailableException e) {
+            // already logged; tried again on the next run
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    // SUPPORTS: the Elasticsearch and snapshot paths never take a connection; the PostgreSQL
+    // fallback opens its own transaction for the lazy topic/subtopic collections (see CourseService)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public SearchResponse search(String query) {
-        if (esAvailable) {
-            return elasticsearchSearch(query);
+        long start = System.nanoTime();
+        String engine = ENGINE_ELASTICSEARCH;
+        try {
+            if (esAvailable && indexReady) {
+                try (RequestTrace.Stage stage = RequestTrace.stage("elasticsearch")) {
+                    return elasticsearchSearch(query);
+                } catch (Exception e) {
+                    log.error("Elasticsearch search failed: {}. Falling back to PostgreSQL.", e.getMessage());
+                    fallbacks.get(REASON_ERROR).increment();
+                    engine = ENGINE_FALLBACK_AFTER_ERROR;
+                    return localSearch(catalogSnapshots.current(), query);
+                }
+            }
+            fallbacks.get(esAvailable ? REASON_INDEX_NOT_READY : REASON_UNAVAILABLE).increment();
+            CatalogSnapshot snapshot = catalogSnapshots.current();
+            engine = snapshot != null ? ENGINE_SNAPSHOT : ENGINE_POSTGRESQL;
+            return localSearch(snapshot, query);
+        } finally {
+            searchTimers.get(engine).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Drops and rebuilds the whole index through the indexing pipeline. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SearchIndexingPipeline.Stats reindexAll() {
+        if (esClient == null || (!esAvailable && !reachable())) {
+            throw new ServiceUnavailableException("Elasticsearch is not available", 30);
         }
-        return postgresSearch(query);
+        esAvailable = true;
+        return indexAllCourses();
     }
 
-    private void indexAllCourses() {
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!esAvailable) {
+            return;
+        }
+        if (event.isFullReload()) {
+            try {
+                indexAllCourses();
+            } catch (ServiceUnavailableException e) {
+                // already logged; search falls back to PostgreSQL
+            }
+            return;
+        }
+
+        if (rebuildPending) {
+            return; // the index is about to be built from scratch anyway
+        }
+
+        // documents embed course and topic fields, so those changes touch every subtopic below them
+        Set<String> ids = new HashSet<>(event.getChangedSubtopicIds());
+        if (!event.getChangedTopicIds().isEmpty() || !event.getChangedCourseIds().isEmpty()) {
+            ids.addAll(subtopicRepository.findIdsByTopicIdInOrCourseIdIn(
+                    event.getChangedTopicIds(), event.getChangedCourseIds()));
+        }
+        ids.removeAll(event.getDeletedSubtopicIds());
+
+        try {
+            if (!ids.isEmpty()) {
+                indexingPipeline.run(INDEX_NAME, pagesOf(new ArrayList<>(ids)));
+            }
+            if (!event.getDeletedSubtopicIds().isEmpty()) {
+                var bulkBuilder = new BulkRequest.Builder();
+                for (String deleted : event.getDeletedSubtopicIds()) {
+                    bulkBuilder.operations(op -> op.delete(d -> d.index(INDEX_NAME).id(deleted)));
+                }
+                if (esClient.bulk(bulkBuilder.build()).errors()) {
+                    log.error("Errors while removing deleted subtopics from the search index.");
+                }
+            }
+            log.info("Search index updated: {} documents reindexed, {} removed.",
+                    ids.size(), event.getDeletedSubtopicIds().size());
+        } catch (Exception e) {
+            log.error("Failed to apply catalog changes to the search index: {}", e.getMessage());
+        }
+    }
+
+    private SearchIndexingPipeline.Stats indexAllCourses() {
+        rebuilding.lock();
+        indexReady = false;
         try {
             // delete the index then recreate
             try {
@@ -65,145 +260,151 @@ public class SearchService {
 
             esClient.indices().create(c -> c.index(INDEX_NAME));
 
-            List<Course> courses = courseRepository.findAll();
-            if (courses.isEmpty()) return;
-
-            var bulkBuilder = new BulkRequest.Builder();
-
-            for (Course course : courses) {
-                for (Topic topic : course.getTopics()) {
-                    for (Subtopic subtopic : topic.getSubtopics()) {
-                        Map<String, Object> doc = new HashMap<>();
-                        doc.put("courseId", course.getId());
-                        doc.put("courseTitle", course.getTitle());
-                        doc.put("courseDescription", course.getDescription());
-                        doc.put("topicTitle", topic.getTitle());
-                        doc.put("subtopicId", subtopic.getId());
-                        doc.put("subtopicTitle", subtopic.getTitle());
-                        doc.put("content", subtopic.getContent());
-
-                        bulkBuilder.operations(op -> op
-                                .index(idx -> idx
-                                        .index(INDEX_NAME)
-                                        .id(subtopic.getId())
-                                        .document(doc)
-                                ));
-                    }
-                }
-            }
-
-            var bulkResponse = esClient.bulk(bulkBuilder.build());
-            if (bulkResponse.errors()) {
-                log.error("Errors during bulk indexing.");
-            } else {
-                log.info("Indexed course content into Elasticsearch successfully.");
-            }
+            var stats = indexingPipeline.run(INDEX_NAME,
+                    (afterId, limit) -> subtopicRepository.findSearchDocumentsAfter(afterId, PageRequest.ofSize(limit)));
+            rebuildPending = false;
+            indexReady = true;
+            return stats;
         } catch (Exception e) {
             log.error("Failed to index courses into Elasticsearch: {}", e.getMessage());
-            esAvailable = false;
+            // a failed run doesn't have to mean the cluster is gone; either way reconnect() retries
+            rebuildPending = true;
+            esAvailable = reachable();
+            throw new ServiceUnavailableException("Failed to index courses into Elasticsearch", 30);
+        } finally {
+            rebuilding.unlock();
         }
     }
 
-    // ---- Elasticsearch search ----
-
-    private SearchResponse elasticsearchSearch(String query) {
+    private boolean reachable() {
         try {
-            var searchRequest = SearchRequest.of(s -> s
-                    .index(INDEX_NAME)
-                    .query(q -> q
-                            .multiMatch(mm -> mm
-                                    .query(query)
-                                    .fields(
-                                            "courseTitle^3",
-                                            "courseDescription^2",
-                                            "topicTitle^3",
-                                            "subtopicTitle^3",
-                                            "content"
-                                    )
-                                    .fuzziness("AUTO")
-                            )
-                    )
-                    .highlight(h -> h
-                            .fields("courseTitle", HighlightField.of(hf -> hf))
-                            .fields("topicTitle", HighlightField.of(hf -> hf))
-                            .fields("subtopicTitle", HighlightField.of(hf -> hf))
-                            .fields("content", HighlightField.of(hf -> hf
-                                    .fragmentSize(150)
-                                    .numberOfFragments(1)
-                            ))
-                    )
-                    .size(50)
-            );
-
-            var response = esClient.search(searchRequest, Map.class);
-
-            // group hit by course id
-            Map<String, List<Hit<Map>>> byCourse = new LinkedHashMap<>();
-            Map<String, String> courseTitles = new HashMap<>();
-
-            for (Hit<Map> hit : response.hits().hits()) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> source = hit.source();
-                if (source == null) continue;
-
-                String courseId = (String) source.get("courseId");
-                byCourse.computeIfAbsent(courseId, k -> new ArrayList<>()).add(hit);
-                courseTitles.putIfAbsent(courseId, (String) source.get("courseTitle"));
+            return esClient.ping().value();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // pages over a known set of ids in the same id order the pipeline's cursor expects
+    private SearchIndexingPipeline.DocumentSource pagesOf(List<String> ids) {
+        Collections.sort(ids);
+        return (afterId, limit) -> {
+            int from = Collections.binarySearch(ids, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            while (from < ids.size()) {
+                List<String> slice = ids.subList(from, Math.min(ids.size(), from + limit));
+                var rows = new ArrayList<>(subtopicRepository.findSearchDocuments(slice));
+                if (!rows.isEmpty()) {
+                    rows.sort(Comparator.comparing(SubtopicRepository.SearchDocumentRow::getSubtopicId));
+                    return rows;
+                }
+                from += slice.size(); // all deleted since the event; skip ahead
             }
+            return List.of();
+        };
+    }
 
-            List<CourseSearchResult> results = byCourse.entrySet().stream()
-                    .map(entry -> {
-                        List<SearchMatch> matches = entry.getValue().stream()
-                                .map(hit -> {
-                                    @SuppressWarnings("unchecked")
-                                    Map<String, Object> src = hit.source();
-                                    var highlights = hit.highlight();
-
-                                    String snippet = "";
-                                    String matchType = "content";
-
-                                    if (highlights != null && !highlights.isEmpty()) {
-                                        if (highlights.containsKey("subtopicTitle")) {
-                                            matchType = "subtopic";
-                                            snippet = String.join(" ", highlights.get("subtopicTitle"));
-                                        } else if (highlights.containsKey("topicTitle")) {
-                                            matchType = "topic";
-                                            snippet = String.join(" ", highlights.get("topicTitle"));
-                                        } else if (highlights.containsKey("content")) {
-                                            matchType = "content";
-                                            snippet = String.join(" ", highlights.get("content"));
-                                        } else if (highlights.containsKey("courseTitle")) {
-                                            matchType = "course";
-                                            snippet = String.join(" ", highlights.get("courseTitle"));
-                                        }
-                                    }
+    // ---- Elasticsearch search ----
+
+    private SearchResponse elasticsearchSearch(String query) throws IOException {
+        var searchRequest = SearchRequest.of(s -> s
+                .index(INDEX_NAME)
+                .query(q -> q
+                        .multiMatch(mm -> mm
+                                .query(query)
+                                .fields(
+                                        "courseTitle^3",
+                                        "courseDescription^2",
+                                        "topicTitle^3",
+                                        "subtopicTitle^3",
+                                        "content"
+                                )
+                                .fuzziness("AUTO")
+                        )
+                )
+                .highlight(h -> h
+                        .fields("courseTitle", HighlightField.of(hf -> hf))
+                        .fields("topicTitle", HighlightField.of(hf -> hf))
+                        .fields("subtopicTitle", HighlightField.of(hf -> hf))
+                        .fields("content", HighlightField.of(hf -> hf
+                                .fragmentSize(150)
+                                .numberOfFragments(1)
+                        ))
+                )
+                .size(50)
+        );
+
+        var response = esClient.search(searchRequest, Map.class);
+
+        // group hit by course id
+        Map<String, List<Hit<Map>>> byCourse = new LinkedHashMap<>();
+        Map<String, String> courseTitles = new HashMap<>();
+
+        for (Hit<Map> hit : response.hits().hits()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> source = hit.source();
+            if (source == null) continue;
+
+            String courseId = (String) source.get("courseId");
+            byCourse.computeIfAbsent(courseId, k -> new ArrayList<>()).add(hit);
+            courseTitles.putIfAbsent(courseId, (String) source.get("courseTitle"));
+        }
 
-                                    if (snippet.isEmpty() && src != null) {
-                                        String content = (String) src.get("content");
-                                        snippet = content != null && content.length() > 150
-                                                ? content.substring(0, 150) + "..."
-                                                : content;
+        List<CourseSearchResult> results = byCourse.entrySet().stream()
+                .map(entry -> {
+                    List<SearchMatch> matches = entry.getValue().stream()
+                            .map(hit -> {
+                                @SuppressWarnings("unchecked")
+                                Map<String, Object> src = hit.source();
+                                var highlights = hit.highlight();
+
+                                String snippet = "";
+                                String matchType = "content";
+
+                                if (highlights != null && !highlights.isEmpty()) {
+                                    if (highlights.containsKey("subtopicTitle")) {
+                                        matchType = "subtopic";
+                                        snippet = String.join(" ", highlights.get("subtopicTitle"));
+                                    } else if (highlights.containsKey("topicTitle")) {
+                                        matchType = "topic";
+                                        snippet = String.join(" ", highlights.get("topicTitle"));
+                                    } else if (highlights.containsKey("content")) {
+                                        matchType = "content";
+                                        snippet = String.join(" ", highlights.get("content"));
+                                    } else if (highlights.containsKey("courseTitle")) {
+                                        matchType = "course";
+                                        snippet = String.join(" ", highlights.get("courseTitle"));
                                     }
+                                }
+
+                                if (snippet.isEmpty() && src != null) {
+                                    String content = (String) src.get("content");
+                                    snippet = content != null && content.length() > 150
+                                            ? content.substring(0, 150) + "..."
+                                            : content;
+                                }
+
+                                return new SearchMatch(
+                                        matchType,
+                                        src != null ? (String) src.get("topicTitle") : "",
+                                        src != null ? (String) src.get("subtopicId") : "",
+                                        src != null ? (String) src.get("subtopicTitle") : "",
+                                        snippet
+                                );
+                            })
+                            .toList();
+
+                    return new CourseSearchResult(entry.getKey(), courseTitles.get(entry.getKey()), matches);
+                })
+                .toList();
 
-                                    return new SearchMatch(
-                                            matchType,
-                                            src != null ? (String) src.get("topicTitle") : "",
-                                            src != null ? (String) src.get("subtopicId") : "",
-                                            src != null ? (String) src.get("subtopicTitle") : "",
-                                            snippet
-                                    );
-                                })
-                                .toList();
-
-                        return new CourseSearchResult(entry.getKey(), courseTitles.get(entry.getKey()), matches);
-                    })
-                    .toList();
-
-            return new SearchResponse(query, results);
-        } catch (Exception e) {
-            log.error("Elasticsearch search failed: {}. Falling back to PostgreSQL.", e.getMessage());
-            return postgresSearch(query);
+        return new SearchResponse(query, results);
+    }
+
+    private SearchResponse localSearch(@Nullable CatalogSnapshot snapshot, String query) {
+        if (snapshot != null) {
+            return new SearchResponse(query, snapshot.search(query));
         }
+        return readOnlyTransaction.execute(status -> postgresSearch(query));
     }
 
     // postgre fallback search with LIKE query
@@ -234,13 +435,8 @@ public class SearchService {
                                 matches.add(new SearchMatch("subtopic", topic.getTitle(), subtopic.getId(), subtopic.getTitle(), subtopic.getTitle()));
                             }
                             if (subtopic.getContent() != null && subtopic.getContent().toLowerCase().contains(query.toLowerCase())) {
-                                String content = subtopic.getContent();
-                                int idx = content.toLowerCase().indexOf(query.toLowerCase());
-                                int start = Math.max(0, idx - 50);
-                                int end = Math.min(content.length(), idx + query.length() + 50);
-                                String snippet = (start > 0 ? "..." : "") + content.substring(start, end) + (end < content.length() ? "..." : "");
-
-                                matches.add(new SearchMatch("content", topic.getTitle(), subtopic.getId(), subtopic.getTitle(), snippet));
+                                matches.add(new SearchMatch("content", topic.getTitle(), subtopic.getId(), subtopic.getTitle(),
+                                        contentSnippet(subtopic.getContent(), query)));
                             }
                         }
                     }
@@ -252,4 +448,12 @@ public class SearchService {
 
         return new SearchResponse(query, results);
     }
+
+    // ~50 characters either side of the first match
+    static String contentSnippet(String content, String query) {
+        int idx = content.toLowerCase().indexOf(query.toLowerCase());
+        int start = Math.max(0, idx - 50);
+        int end = Math.min(content.length(), idx + query.length() + 50);
+        return (start > 0 ? "..." : "") + content.substring(start, end) + (end < content.length() ? "..." : "");
+    }
 }
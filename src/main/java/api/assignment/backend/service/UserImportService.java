@@ -0,0 +1,332 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.user.ImportUserRow;
+import api.assignment.backend.dto.user.UserImportResponse;
+import api.assignment.backend.dto.user.UserImportRowResult;
+import api.assignment.backend.dto.user.UserImportRowResult.Status;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.exception.BadRequestException;
+import api.assignment.backend.repository.UserRepository;
+import api.assignment.backend.security.PasswordHashingService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user provisioning for cohort onboarding. The upload is read as a stream and handled in
+ * chunks: each chunk costs one query for emails that are already taken, one parallel round of
+ * BCrypt on the hashing pool and one batched insert, instead of a lookup, a hash and an insert
+ * per user. Chunks commit independently, so if something fails part-way the users created so
+ * far stay and the report says exactly which rows made it.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashing;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordHashingService passwordHashing,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${admin.user-import.chunk-size:500}") int chunkSize,
+                             @Value("${admin.user-import.max-rows:50000}") int maxRows) {
+        this.userRepository = userRepository;
+        this.passwordHashing = passwordHashing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    /** CSV with a header row naming at least {@code email} and {@code password}; {@code name} is optional. */
+    public UserImportResponse importCsv(InputStream body) {
+        Run run = new Run();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new BadRequestException("CSV upload is empty");
+            }
+            List<String> header = parseCsvLine(headerLine.replace("\uFEFF", ""));
+            if (header == null) {
+                throw new BadRequestException("CSV header is malformed");
+            }
+            int emailColumn = columnOf(header, "email");
+            int passwordColumn = columnOf(header, "password");
+            int nameColumn = columnOf(header, "name");
+            if (emailColumn < 0 || passwordColumn < 0) {
+                throw new BadRequestException("CSV header must contain 'email' and 'password' columns");
+            }
+
+            String line;
+            while (run.accepting() && (line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                if (fields == null) {
+                    run.reject("Unterminated quoted field");
+                    continue;
+                }
+                run.accept(new ImportUserRow(field(fields, emailColumn), field(fields, passwordColumn),
+                        field(fields, nameColumn)));
+            }
+        } catch (IOException e) {
+            run.abort("Failed to read upload: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    /** A JSON array of {@code {email, password, name}} objects. */
+    public UserImportResponse importJson(InputStream body) {
+        Run run = new Run();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of users");
+            }
+            while (run.accepting()) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    break;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    run.abort(token == null ? "Unexpected end of input" : "Expected a user object, found " + token);
+                    break;
+                }
+                run.accept(objectMapper.readValue(parser, ImportUserRow.class));
+            }
+        } catch (JsonProcessingException e) {
+            run.abort("Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            run.abort("Failed to read upload: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    private static User toUser(ImportUserRow row, String hash) {
+        String name = row.getName() != null && !row.getName().isBlank()
+                ? row.getName().trim()
+                : row.getEmail().split("@")[0];
+        return User.builder()
+                .name(name)
+                .email(row.getEmail())
+                .password(hash)
+                .build();
+    }
+
+    // one record per line: quoted fields may contain commas and doubled quotes but not line
+    // breaks. Returns null for an unterminated quote.
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int columnOf(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    private record Pending(int row, ImportUserRow user) {}
+
+    /** State of one upload: rows waiting for the next chunk and the report so far. */
+    private final class Run {
+
+        private final List<UserImportRowResult> results = new ArrayList<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<Pending> chunk = new ArrayList<>();
+        private int rows;
+        private boolean stopped;
+
+        boolean accepting() {
+            return !stopped;
+        }
+
+        void accept(ImportUserRow user) {
+            if (rows == maxRows) {
+                abort("Row limit of " + maxRows + " reached; the rest of the upload was ignored");
+                return;
+            }
+            int row = ++rows;
+            if (user.getEmail() != null) {
+                user.setEmail(user.getEmail().trim());
+            }
+
+            Set<ConstraintViolation<ImportUserRow>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                record(row, user.getEmail(), Status.INVALID, null, message);
+                return;
+            }
+            if (!seenEmails.add(user.getEmail())) {
+                record(row, user.getEmail(), Status.DUPLICATE, null, "Email appears earlier in this upload");
+                return;
+            }
+
+            chunk.add(new Pending(row, user));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String message) {
+            record(++rows, null, Status.INVALID, null, message);
+        }
+
+        // unreadable input: whatever came before it is still imported
+        void abort(String message) {
+            record(++rows, null, Status.INVALID, null, message);
+            stopped = true;
+        }
+
+        UserImportResponse finish() {
+            flush();
+            results.sort(Comparator.comparingInt(UserImportRowResult::getRow));
+
+            int[] counts = new int[Status.values().length];
+            for (UserImportRowResult result : results) {
+                counts[result.getStatus().ordinal()]++;
+            }
+            log.info("User import finished: {} rows, {} created, {} duplicates, {} invalid, {} failed", rows,
+                    counts[Status.CREATED.ordinal()], counts[Status.DUPLICATE.ordinal()],
+                    counts[Status.INVALID.ordinal()], counts[Status.FAILED.ordinal()]);
+            return new UserImportResponse(rows, counts[Status.CREATED.ordinal()],
+                    counts[Status.DUPLICATE.ordinal()], counts[Status.INVALID.ordinal()],
+                    counts[Status.FAILED.ordinal()], results);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Pending> batch = List.copyOf(chunk);
+            chunk.clear();
+            int recordedBefore = results.size();
+
+            try {
+                Set<String> taken = userRepository.findExistingEmails(
+                        batch.stream().map(p -> p.user().getEmail()).toList());
+                List<Pending> fresh = new ArrayList<>(batch.size());
+                for (Pending pending : batch) {
+                    if (taken.contains(pending.user().getEmail())) {
+                        record(pending.row(), pending.user().getEmail(), Status.DUPLICATE, null, "Email already registered");
+                    } else {
+                        fresh.add(pending);
+                    }
+                }
+                if (!fresh.isEmpty()) {
+                    insert(fresh, passwordHashing.encodeAll(fresh.stream().map(p -> p.user().getPassword()).toList()));
+                }
+            } catch (DataAccessException e) {
+                log.error("User import chunk failed: {}", e.getMessage());
+                Set<Integer> recorded = results.subList(recordedBefore, results.size()).stream()
+                        .map(UserImportRowResult::getRow)
+                        .collect(Collectors.toSet());
+                for (Pending pending : batch) {
+                    if (!recorded.contains(pending.row())) {
+                        record(pending.row(), pending.user().getEmail(), Status.FAILED, null, "Database error, row not imported");
+                    }
+                }
+                stopped = true;
+            }
+        }
+
+        private void insert(List<Pending> fresh, List<String> hashes) {
+            List<User> users = new ArrayList<>(fresh.size());
+            for (int i = 0; i < fresh.size(); i++) {
+                users.add(toUser(fresh.get(i).user(), hashes.get(i)));
+            }
+
+            try {
+                List<User> saved = transactionTemplate.execute(status -> userRepository.saveAllAndFlush(users));
+                for (int i = 0; i < fresh.size(); i++) {
+                    record(fresh.get(i).row(), saved.get(i).getEmail(), Status.CREATED, saved.get(i).getId(), null);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // someone took one of these emails since the lookup; the batch rolled back, so
+                // retry row by row to find out which
+                for (int i = 0; i < fresh.size(); i++) {
+                    Pending pending = fresh.get(i);
+                    User user = toUser(pending.user(), hashes.get(i));
+                    try {
+                        User saved = transactionTemplate.execute(status -> userRepository.saveAndFlush(user));
+                        record(pending.row(), saved.getEmail(), Status.CREATED, saved.getId(), null);
+                    } catch (DataIntegrityViolationException duplicate) {
+                        record(pending.row(), user.getEmail(), Status.DUPLICATE, null, "Email already registered");
+                    }
+                }
+            }
+        }
+
+        private void record(int row, String email, Status status, Long userId, String message) {
+            results.add(new UserImportRowResult(row, email, status, userId, message));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package api.assignment.backend.sql;
+
+import api.assignment.backend.config.SqlBudgetProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements and JDBC time of each request ({@link SqlCapture}) and checks them
+ * against {@code sql-budget}. Over-budget requests are logged with their repeated statement
+ * shapes; the totals go to response headers and/or the {@code sql.request.*} meters.
+ * Runs just inside the tracing filter, so statements run by the security filters count too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time";
+
+    // logged shapes are cut to this many characters; Hibernate's column lists get long
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledRoute> routes;
+
+    public SqlBudgetFilter(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.routes = properties.getRoutes().stream()
+                .map(r -> new CompiledRoute(PathPatternParser.defaultInstance.parse(r.getPattern()), r))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlCapture capture = SqlCapture.start();
+        try {
+            if (properties.isHeaders()) {
+                // headers have to be set before the body commits the response
+                filterChain.doFilter(request, new OnCommittedResponseWrapper(response) {
+                    @Override
+                    protected void onResponseCommitted() {
+                        writeHeaders(response, capture);
+                    }
+                });
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            capture.close();
+            if (properties.isHeaders() && !response.isCommitted()) {
+                writeHeaders(response, capture);
+            }
+            record(request, capture);
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlCapture capture) {
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(capture.statements()));
+        response.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", capture.jdbcTime().toNanos() / 1e6));
+    }
+
+    private void record(HttpServletRequest request, SqlCapture capture) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        if (properties.isMetrics()) {
+            DistributionSummary.builder("sql.request.statements")
+                    .description("SQL statements run while serving a request")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(capture.statements());
+            Timer.builder("sql.request.time")
+                    .description("JDBC execution time spent while serving a request")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(capture.jdbcTime());
+        }
+
+        SqlBudgetProperties.Route route = matchRoute(request);
+        int maxStatements = route != null && route.getMaxStatements() != null
+                ? route.getMaxStatements() : properties.getMaxStatements();
+        Duration maxJdbcTime = route != null && route.getMaxJdbcTime() != null
+                ? route.getMaxJdbcTime() : properties.getMaxJdbcTime();
+        if (capture.statements() <= maxStatements && capture.jdbcTime().compareTo(maxJdbcTime) <= 0) {
+            return;
+        }
+
+        if (properties.isMetrics()) {
+            Counter.builder("sql.request.over-budget")
+                    .description("Requests that ran more SQL statements or JDBC time than their budget")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (log.isWarnEnabled()) {
+            StringBuilder repeated = new StringBuilder();
+            for (Map.Entry<String, Integer> shape : capture.repeatedShapes(properties.getRepeatedShapeThreshold()).entrySet()) {
+                String sql = shape.getKey();
+                repeated.append("\n  ").append(shape.getValue()).append("x ")
+                        .append(sql.length() > MAX_SHAPE_LENGTH ? sql.substring(0, MAX_SHAPE_LENGTH) + "..." : sql);
+            }
+            log.warn("{} {} ran {} SQL statements (budget {}) taking {} ms of JDBC time (budget {} ms); repeated statements:{}",
+                    method, request.getRequestURI(), capture.statements(), maxStatements,
+                    capture.jdbcTime().toMillis(), maxJdbcTime.toMillis(),
+                    repeated.isEmpty() ? " none" : repeated);
+        }
+    }
+
+    private SqlBudgetProperties.Route matchRoute(HttpServletRequest request) {
+        PathContainer path = null;
+        for (CompiledRoute candidate : routes) {
+            String method = candidate.route().getMethod();
+            if (method != null && !method.equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (candidate.pattern().matches(path)) {
+                return candidate.route();
+            }
+        }
+        return null;
+    }
+
+    private record CompiledRoute(PathPattern pattern, SqlBudgetProperties.Route route) {}
+}
@@ -0,0 +1,116 @@
+package api.assignment.backend.sql;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The SQL statements Hibernate ran on the current thread while this capture was open, with their
+ * JDBC execution time. Captures nest: closing one adds its totals to the capture it replaced, so
+ * a request-wide capture still sees statements counted by a narrower one inside it.
+ * <p>
+ * Only counts while {@link SqlStatementInspector} and {@link SqlTimingListener} are registered
+ * with Hibernate ({@code sql-budget.enabled}).
+ */
+public final class SqlCapture implements AutoCloseable {
+
+    private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlCapture parent;
+    private final Thread thread = Thread.currentThread();
+    // raw SQL -> count; normalised only when someone asks for the shapes
+    private final Map<String, Integer> statementsBySql = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+    private boolean closed;
+
+    private SqlCapture(SqlCapture parent) {
+        this.parent = parent;
+    }
+
+    /** Starts counting on the current thread; close it on the same thread. */
+    public static SqlCapture start() {
+        SqlCapture capture = new SqlCapture(CURRENT.get());
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    static @Nullable SqlCapture current() {
+        return CURRENT.get();
+    }
+
+    void statement(String sql) {
+        statements++;
+        statementsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (Thread.currentThread() != thread) {
+            throw new IllegalStateException("SqlCapture closed on " + Thread.currentThread().getName()
+                    + " but started on " + thread.getName());
+        }
+        closed = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+            parent.statements += statements;
+            parent.jdbcNanos += jdbcNanos;
+            statementsBySql.forEach((sql, n) -> parent.statementsBySql.merge(sql, n, Integer::sum));
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Duration jdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    /** Statement count per SQL shape (literals and IN lists collapsed), most frequent first. */
+    public Map<String, Integer> shapes() {
+        Map<String, Integer> shapes = new HashMap<>();
+        statementsBySql.forEach((sql, n) -> shapes.merge(shape(sql), n, Integer::sum));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEachOrdered(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    /** Shapes that ran at least {@code threshold} times, the usual sign of an N+1. */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes().forEach((shape, n) -> {
+            if (n >= threshold) {
+                repeated.put(shape, n);
+            }
+        });
+        return repeated;
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,16 @@
+package api.assignment.backend.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Adds every statement Hibernate prepares to the thread's open {@link SqlCapture}. */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlCapture capture = SqlCapture.current();
+        if (capture != null) {
+            capture.statement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,52 @@
+package api.assignment.backend.sql;
+
+import api.assignment.backend.trace.RequestTrace;
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds JDBC execute time (statements and batches) to the thread's open {@link SqlCapture}, and
+ * to the request's {@link RequestTrace} as "db" stages.
+ * Hibernate creates one per session ({@code hibernate.session.events.auto}), and a session is
+ * only used by one thread at a time, so the start time needs no synchronisation.
+ */
+public class SqlTimingListener implements SessionEventListener {
+
+    private long start;
+    private transient RequestTrace.Stage stage;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        begin();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        begin();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void begin() {
+        stage = RequestTrace.stage("db");
+        start = System.nanoTime();
+    }
+
+    private void record() {
+        if (stage != null) {
+            stage.close();
+            stage = null;
+        }
+        SqlCapture capture = SqlCapture.current();
+        if (capture != null) {
+            capture.jdbcTime(System.nanoTime() - start);
+        }
+    }
+}
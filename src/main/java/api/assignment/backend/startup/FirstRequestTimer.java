@@ -0,0 +1,54 @@
+package api.assignment.backend.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records how long after JVM start the first real (non-actuator) request completed, as the
+ * {@code application.first-request.time} gauge next to Spring Boot's own started/ready times.
+ */
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    private final StartupTasks startupTasks;
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    public FirstRequestTimer(StartupTasks startupTasks, MeterRegistry meterRegistry) {
+        this.startupTasks = startupTasks;
+        TimeGauge.builder("application.first-request.time", startupTasks,
+                        TimeUnit.MILLISECONDS, tasks -> {
+                            Duration first = tasks.getFirstRequest();
+                            return first != null ? first.toMillis() : Double.NaN;
+                        })
+                .description("Time from JVM start until the first request was served")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return recorded.get() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (recorded.compareAndSet(false, true)) {
+                startupTasks.recordFirstRequest();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package api.assignment.backend.startup;
+
+import api.assignment.backend.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposed as the {@code startup} health contributor and included in the readiness group, so
+ * {@code /actuator/health/readiness} stays OUT_OF_SERVICE until the required startup tasks
+ * are done. Search is never required: until the index is ready it is served from PostgreSQL.
+ */
+@Component
+@RequiredArgsConstructor
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private final StartupTasks startupTasks;
+    private final SearchService searchService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = startupTasks.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetails(startupTasks.describe())
+                .withDetail("searchEngine", searchService.isIndexReady() ? "elasticsearch" : "postgresql")
+                .build();
+    }
+}
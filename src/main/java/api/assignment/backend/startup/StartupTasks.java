@@ -0,0 +1,131 @@
+package api.assignment.backend.startup;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background work that used to block startup (catalog seeding, index build, cache warm-up).
+ * Each task is registered as soon as it is scheduled so the readiness probe can report it, and
+ * runs once the tasks it depends on have finished — whether they succeeded or not, the same way
+ * a failed seed never stopped the app from starting before.
+ */
+@Component
+@Slf4j
+public class StartupTasks {
+
+    public enum State { PENDING, RUNNING, DONE, FAILED }
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "startup-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Duration firstRequest;
+
+    public CompletableFuture<Void> schedule(String name, boolean required, Runnable work, CompletableFuture<?>... after) {
+        Task task = new Task(name, required);
+        synchronized (tasks) {
+            tasks.put(name, task);
+        }
+        return CompletableFuture.allOf(after)
+                .handle((ignored, failure) -> null)
+                .thenRunAsync(() -> task.run(work), executor);
+    }
+
+    /** True once every task readiness waits for has finished, successfully or not. */
+    public boolean isReady() {
+        synchronized (tasks) {
+            return tasks.values().stream()
+                    .noneMatch(t -> t.required && (t.state == State.PENDING || t.state == State.RUNNING));
+        }
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        synchronized (tasks) {
+            for (Task task : tasks.values()) {
+                details.put(task.name, task.describe());
+            }
+        }
+        if (firstRequest != null) {
+            details.put("timeToFirstRequestMillis", firstRequest.toMillis());
+        }
+        return details;
+    }
+
+    // measured from JVM start, so it includes everything before the context existed
+    void recordFirstRequest() {
+        firstRequest = Duration.ofMillis(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+        log.info("First request served {} ms after JVM start.", firstRequest.toMillis());
+    }
+
+    Duration getFirstRequest() {
+        return firstRequest;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Task {
+        private final String name;
+        private final boolean required;
+        private volatile State state = State.PENDING;
+        private volatile Instant startedAt;
+        private volatile Duration elapsed;
+        private volatile String error;
+
+        Task(String name, boolean required) {
+            this.name = name;
+            this.required = required;
+        }
+
+        void run(Runnable work) {
+            startedAt = Instant.now();
+            state = State.RUNNING;
+            try {
+                work.run();
+                state = State.DONE;
+            } catch (Exception e) {
+                log.error("Startup task '{}' failed: {}", name, e.getMessage(), e);
+                error = e.getMessage();
+                state = State.FAILED;
+            } finally {
+                elapsed = Duration.between(startedAt, Instant.now());
+            }
+            if (state == State.DONE) {
+                log.info("Startup task '{}' finished in {} ms.", name, elapsed.toMillis());
+            }
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", state);
+            details.put("required", required);
+            if (elapsed != null) {
+                details.put("elapsedMillis", elapsed.toMillis());
+            } else if (startedAt != null) {
+                details.put("elapsedMillis", Duration.between(startedAt, Instant.now()).toMillis());
+            }
+            if (error != null) {
+                details.put("error", error);
+            }
+            return details;
+        }
+    }
+}
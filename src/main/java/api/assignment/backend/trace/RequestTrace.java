@@ -0,0 +1,201 @@
+package api.assignment.backend.trace;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stage timings of the request running on the current thread. {@link #stage} opens a nested
+ * stage and returns something to close it with; stages close innermost-first, so the timeline
+ * is a plain stack of {@link System#nanoTime} pairs in preallocated arrays. Nothing is allocated
+ * per stage, and {@link #stage} is a ThreadLocal read when no trace is running.
+ */
+public final class RequestTrace implements AutoCloseable {
+
+    // per request; later stages are only counted in the totals
+    static final int MAX_STAGES = 64;
+    // distinct stage names per request that get a total (Server-Timing)
+    static final int MAX_NAMES = 16;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Stage NOOP = () -> { };
+
+    private final Instant startedAt = Instant.now();
+    private final long start = System.nanoTime();
+
+    private final String[] names = new String[MAX_STAGES];
+    private final long[] starts = new long[MAX_STAGES];
+    private final long[] ends = new long[MAX_STAGES];
+    private final int[] depths = new int[MAX_STAGES];
+    private int count;
+    private int dropped;
+
+    // open stages, innermost last; -1 for one that didn't fit
+    private final int[] open = new int[MAX_STAGES];
+    private final String[] openNames = new String[MAX_STAGES];
+    private final long[] openStarts = new long[MAX_STAGES];
+    private int depth;
+
+    private final String[] totalNames = new String[MAX_NAMES];
+    private final long[] totalNanos = new long[MAX_NAMES];
+    private final int[] totalCounts = new int[MAX_NAMES];
+    private int totalCount;
+
+    private long end;
+    private final Stage closeInnermost = this::pop;
+
+    private RequestTrace() {
+    }
+
+    /** Starts tracing the current thread; close it on the same thread. */
+    static RequestTrace begin() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Opens a stage of the current request, nested inside whichever stage is open. A no-op
+     * outside a traced request.
+     */
+    public static Stage stage(String name) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null || trace.end != 0 || !trace.push(name)) {
+            return NOOP;
+        }
+        return trace.closeInnermost;
+    }
+
+    private boolean push(String name) {
+        if (depth == MAX_STAGES) {
+            dropped++;
+            return false;
+        }
+        long now = System.nanoTime();
+        int index = -1;
+        if (count < MAX_STAGES) {
+            index = count++;
+            names[index] = name;
+            starts[index] = now;
+            depths[index] = depth;
+        } else {
+            dropped++;
+        }
+        open[depth] = index;
+        openNames[depth] = name;
+        openStarts[depth] = now;
+        depth++;
+        return true;
+    }
+
+    private void pop() {
+        if (depth == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        depth--;
+        int index = open[depth];
+        if (index >= 0) {
+            ends[index] = now;
+        }
+        addTotal(openNames[depth], now - openStarts[depth]);
+    }
+
+    private void addTotal(String name, long nanos) {
+        for (int i = 0; i < totalCount; i++) {
+            // stage names are literals, so identity almost always hits first
+            if (totalNames[i] == name || totalNames[i].equals(name)) {
+                totalNanos[i] += nanos;
+                totalCounts[i]++;
+                return;
+            }
+        }
+        if (totalCount < MAX_NAMES) {
+            totalNames[totalCount] = name;
+            totalNanos[totalCount] = nanos;
+            totalCounts[totalCount] = 1;
+            totalCount++;
+        }
+    }
+
+    /** Stops the clock, closes stages left open and detaches the trace from the thread. */
+    @Override
+    public void close() {
+        if (end != 0) {
+            return;
+        }
+        while (depth > 0) {
+            pop();
+        }
+        end = System.nanoTime();
+        CURRENT.remove();
+    }
+
+    public long durationNanos() {
+        return (end != 0 ? end : System.nanoTime()) - start;
+    }
+
+    /**
+     * {@code Server-Timing} value: the whole request, then each stage name's total time (and
+     * count, when it ran more than once). Stages still open count up to now.
+     */
+    String serverTiming() {
+        long now = System.nanoTime();
+        StringBuilder header = new StringBuilder(32 + 32 * totalCount);
+        header.append("total;dur=").append(millis((end != 0 ? end : now) - start));
+
+        long[] nanos = totalNanos.clone();
+        int[] counts = totalCounts.clone();
+        String[] stageNames = totalNames.clone();
+        int n = totalCount;
+        for (int d = 0; d < depth; d++) {
+            String name = openNames[d];
+            int i = 0;
+            while (i < n && !stageNames[i].equals(name)) {
+                i++;
+            }
+            if (i == n) {
+                if (n == MAX_NAMES) {
+                    continue;
+                }
+                stageNames[n++] = name;
+            }
+            nanos[i] += now - openStarts[d];
+            counts[i]++;
+        }
+        for (int i = 0; i < n; i++) {
+            header.append(", ").append(stageNames[i]);
+            if (counts[i] > 1) {
+                header.append(";desc=\"").append(counts[i]).append("x\"");
+            }
+            header.append(";dur=").append(millis(nanos[i]));
+        }
+        return header.toString();
+    }
+
+    TraceRecord toRecord(String method, String path, String route, int status) {
+        List<TraceRecord.StageTiming> stages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stages.add(new TraceRecord.StageTiming(names[i], depths[i],
+                    millis(starts[i] - start), millis((ends[i] != 0 ? ends[i] : end) - starts[i])));
+        }
+        List<TraceRecord.StageTotal> totals = new ArrayList<>(totalCount);
+        for (int i = 0; i < totalCount; i++) {
+            totals.add(new TraceRecord.StageTotal(totalNames[i], totalCounts[i], millis(totalNanos[i])));
+        }
+        return new TraceRecord(startedAt, method, path, route, status, millis(durationNanos()),
+                stages, totals, dropped);
+    }
+
+    private static double millis(long nanos) {
+        // three decimals is microseconds; enough for a stage and keeps the header short
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    /** An open stage; closing it ends the innermost stage still open. */
+    @FunctionalInterface
+    public interface Stage extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,31 @@
+package api.assignment.backend.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** {@code /actuator/slowrequests}: the slowest requests still in the {@link TraceBuffer}, with their stages. */
+@Component
+@Endpoint(id = "slowrequests")
+@RequiredArgsConstructor
+public class SlowRequestsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final TraceBuffer buffer;
+
+    @ReadOperation
+    public List<TraceRecord> slowest(@Nullable Integer limit) {
+        return buffer.slowest(limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        buffer.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package api.assignment.backend.trace;
+
+import api.assignment.backend.config.TracingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Fixed-size ring of recently finished requests; writers never block or wait on readers. */
+@Component
+public class TraceBuffer {
+
+    private final AtomicReferenceArray<TraceRecord> records;
+    private final AtomicLong next = new AtomicLong();
+
+    public TraceBuffer(TracingProperties properties) {
+        this.records = new AtomicReferenceArray<>(Math.max(1, properties.getBufferSize()));
+    }
+
+    public void add(TraceRecord record) {
+        records.set((int) (next.getAndIncrement() % records.length()), record);
+    }
+
+    public List<TraceRecord> slowest(int limit) {
+        List<TraceRecord> all = new ArrayList<>(records.length());
+        for (int i = 0; i < records.length(); i++) {
+            TraceRecord record = records.get(i);
+            if (record != null) {
+                all.add(record);
+            }
+        }
+        all.sort(Comparator.comparingDouble(TraceRecord::durationMs).reversed());
+        return all.subList(0, Math.min(limit, all.size()));
+    }
+
+    public void clear() {
+        for (int i = 0; i < records.length(); i++) {
+            records.set(i, null);
+        }
+    }
+}
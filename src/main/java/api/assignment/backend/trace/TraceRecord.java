@@ -0,0 +1,23 @@
+package api.assignment.backend.trace;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A finished request as kept in the {@link TraceBuffer}. Times are milliseconds; stage offsets
+ * are from the start of the request, and {@code depth} 0 is a top-level stage.
+ */
+public record TraceRecord(Instant startedAt,
+                          String method,
+                          String path,
+                          String route,
+                          int status,
+                          double durationMs,
+                          List<StageTiming> stages,
+                          List<StageTotal> totals,
+                          int droppedStages) {
+
+    public record StageTiming(String name, int depth, double offsetMs, double durationMs) {}
+
+    public record StageTotal(String name, int count, double durationMs) {}
+}
@@ -0,0 +1,72 @@
+package api.assignment.backend.trace;
+
+import api.assignment.backend.config.TracingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outermost filter: runs each request inside a {@link RequestTrace}, adds the
+ * {@code Server-Timing} header and keeps slow (and a sample of other) requests in the
+ * {@link TraceBuffer}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final TracingProperties properties;
+    private final TraceBuffer buffer;
+    private final long slowNanos;
+
+    public TracingFilter(TracingProperties properties, TraceBuffer buffer) {
+        this.properties = properties;
+        this.buffer = buffer;
+        this.slowNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.begin();
+        try {
+            if (properties.isServerTiming()) {
+                // the header has to go out with the status line, so it reflects the stages up to the commit
+                filterChain.doFilter(request, new OnCommittedResponseWrapper(response) {
+                    @Override
+                    protected void onResponseCommitted() {
+                        response.setHeader(SERVER_TIMING_HEADER, trace.serverTiming());
+                    }
+                });
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            trace.close();
+            if (properties.isServerTiming() && !response.isCommitted()) {
+                response.setHeader(SERVER_TIMING_HEADER, trace.serverTiming());
+            }
+            if (trace.durationNanos() >= slowNanos || ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                buffer.add(trace.toRecord(request.getMethod(), request.getRequestURI(),
+                        route != null ? route.toString() : null, response.getStatus()));
+            }
+        }
+    }
+}
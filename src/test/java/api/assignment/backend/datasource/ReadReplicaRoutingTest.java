@@ -0,0 +1,250 @@
+package api.assignment.backend.datasource;
+
+import api.assignment.backend.dto.auth.LoginRequest;
+import api.assignment.backend.dto.auth.RegisterRequest;
+import api.assignment.backend.entity.Role;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.repository.UserRepository;
+import api.assignment.backend.security.AuthenticatedUser;
+import api.assignment.backend.service.AuthService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded PostgreSQL servers, the second a hot standby streaming from the first (cloned with
+ * the low-level backup API, since the embedded binaries have no pg_basebackup). The schema and
+ * every write reach the replica the way they would in production, so the test only has to check
+ * which server each kind of transaction talks to.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "datasource.replica.read-your-writes=1s"
+})
+class ReadReplicaRoutingTest {
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        try {
+            Path root = Files.createTempDirectory("replica-routing");
+            Path primaryData = root.resolve("primary");
+            primary = EmbeddedPostgres.builder()
+                    .setDataDirectory(primaryData)
+                    // WAL the standby still needs after the backup
+                    .setServerConfig("wal_keep_size", "256MB")
+                    .start();
+            Path replicaData = root.resolve("replica");
+            cloneAsStandby(primaryData, replicaData);
+            replica = EmbeddedPostgres.builder()
+                    .setDataDirectory(replicaData)
+                    .setCleanDataDirectory(false)
+                    .start();
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Failed to start the primary/replica pair", e);
+        }
+        registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("datasource.replica.url", () -> replica.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        if (replica != null) {
+            replica.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(inRecovery(true)).as("read-only transaction on the standby").isTrue();
+        assertThat(inRecovery(false)).as("read-write transaction on the standby").isFalse();
+    }
+
+    @Test
+    void writesGoToThePrimaryAndReplicate() throws InterruptedException {
+        String email = "replicated-" + System.nanoTime() + "@example.test";
+        userRepository.save(User.builder().name("Replicated").email(email).password("x").build());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!onReplica(email)) {
+            assertThat(System.nanoTime()).as("write replicated within 10s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void readYourWritesKeepsAWriterOnThePrimaryForAWhile() throws InterruptedException {
+        authenticateAs(1L);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                entityManager.createNativeQuery("select 1").getSingleResult());
+        assertThat(inRecovery(true)).as("writer's read right after the write").isFalse();
+
+        authenticateAs(2L);
+        assertThat(inRecovery(true)).as("another user's read").isTrue();
+
+        authenticateAs(1L);
+        Thread.sleep(1_500);
+        assertThat(inRecovery(true)).as("writer's read once the window passed").isTrue();
+    }
+
+    @Test
+    void loginRightAfterRegisterFindsTheNewAccount() throws SQLException {
+        String email = "new-" + System.nanoTime() + "@example.test";
+        // a replica that has fallen behind: it stops applying WAL until resumed
+        replay("pause");
+        try {
+            RegisterRequest register = new RegisterRequest();
+            register.setEmail(email);
+            register.setPassword("password123");
+            authService.register(register).join();
+            assertThat(onReplica(email)).as("new account on the replica").isFalse();
+
+            LoginRequest login = new LoginRequest();
+            login.setEmail(email);
+            login.setPassword("password123");
+            assertThat(authService.login(login, "127.0.0.1").join().getToken()).isNotBlank();
+        } finally {
+            replay("resume");
+        }
+    }
+
+    private boolean onReplica(String email) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> userRepository.findByEmail(email).isPresent());
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                (Boolean) entityManager.createNativeQuery("select pg_is_in_recovery()").getSingleResult());
+    }
+
+    // a pause is only requested; it takes effect once the startup process gets to it
+    private static void replay(String action) throws SQLException {
+        try (Connection connection = replica.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select pg_wal_replay_" + action + "()");
+            if (action.equals("pause")) {
+                long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+                while (true) {
+                    try (ResultSet rs = statement.executeQuery("select pg_get_wal_replay_pause_state()")) {
+                        rs.next();
+                        if (rs.getString(1).equals("paused")) {
+                            return;
+                        }
+                    }
+                    assertThat(System.nanoTime()).as("replay paused within 10s").isLessThan(deadline);
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    private static void authenticateAs(long userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.test", null,
+                null, Role.USER, null, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    // low-level base backup: copy the data directory between pg_backup_start and pg_backup_stop
+    private static void cloneAsStandby(Path primaryData, Path replicaData) throws IOException, SQLException {
+        Set<String> skipped = Set.of("postmaster.pid", "postmaster.opts", "epg-lock");
+        try (Connection connection = primary.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select pg_backup_start('replica', true)");
+            Files.walkFileTree(primaryData, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(replicaData.resolve(primaryData.relativize(dir)));
+                    // the standby streams WAL from the primary instead
+                    return dir.getFileName().toString().equals("pg_wal") ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!skipped.contains(file.getFileName().toString())) {
+                        try {
+                            Files.copy(file, replicaData.resolve(primaryData.relativize(file)),
+                                    StandardCopyOption.REPLACE_EXISTING);
+                        } catch (NoSuchFileException e) {
+                            // temporary files come and go during the copy; WAL replay covers them
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            Files.createDirectories(replicaData.resolve("pg_wal").resolve("archive_status"));
+            try (ResultSet rs = statement.executeQuery("select labelfile from pg_backup_stop(false)")) {
+                rs.next();
+                Files.writeString(replicaData.resolve("backup_label"), rs.getString(1));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // postgres refuses a data directory anyone else can read
+        Files.setPosixFilePermissions(replicaData, PosixFilePermissions.fromString("rwx------"));
+        Files.createFile(replicaData.resolve("standby.signal"));
+        Files.writeString(replicaData.resolve("postgresql.auto.conf"),
+                "primary_conninfo = 'host=localhost port=" + primary.getPort() + " user=postgres'\n",
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,170 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    // starts away from zero, like System.nanoTime()
+    private long now = 123_456_789L;
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, () -> now);
+
+    @Test
+    void allowsABurstUpToCapacity() {
+        RateLimitProperties.Limit limit = limit(5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire("10.0.0.1", limit)).as("request %d", i + 1).isZero();
+        }
+        assertThat(acquire("10.0.0.1", limit)).isPositive();
+    }
+
+    @Test
+    void retryAfterIsTheTimeUntilTheNextToken() {
+        RateLimitProperties.Limit limit = limit(2, 4);
+        acquire("10.0.0.1", limit);
+        acquire("10.0.0.1", limit);
+
+        long retryAfter = acquire("10.0.0.1", limit);
+        assertThat(retryAfter).isCloseTo(SECOND / 4, within(10L));
+
+        now += SECOND / 8;
+        assertThat(acquire("10.0.0.1", limit)).isCloseTo(SECOND / 8, within(10L));
+
+        now += SECOND / 8 + 10;
+        assertThat(acquire("10.0.0.1", limit)).isZero();
+        assertThat(acquire("10.0.0.1", limit)).isPositive();
+    }
+
+    @Test
+    void waitingTheReportedRetryAfterIsEnough() {
+        RateLimitProperties.Limit limit = limit(1, 0.3);
+        acquire("user", limit);
+
+        for (int i = 0; i < 20; i++) {
+            long retryAfter = acquire("user", limit);
+            assertThat(retryAfter).isPositive();
+            now += retryAfter;
+            assertThat(acquire("user", limit)).as("after waiting %d ns", retryAfter).isZero();
+        }
+    }
+
+    @Test
+    void refillsAtTheConfiguredRateUpToCapacity() {
+        RateLimitProperties.Limit limit = limit(3, 2);
+        drain("10.0.0.1", limit, 3);
+
+        now += SECOND;
+        assertThat(acquire("10.0.0.1", limit)).isZero();
+        assertThat(acquire("10.0.0.1", limit)).isZero();
+        assertThat(acquire("10.0.0.1", limit)).isPositive();
+
+        // a long pause refills to capacity, not beyond
+        now += 60 * SECOND;
+        drain("10.0.0.1", limit, 3);
+        assertThat(acquire("10.0.0.1", limit)).isPositive();
+    }
+
+    @Test
+    void accumulatesFractionalRefill() {
+        RateLimitProperties.Limit limit = limit(1, 0.5);
+        acquire("10.0.0.1", limit);
+
+        now += SECOND;
+        assertThat(acquire("10.0.0.1", limit)).isCloseTo(SECOND, within(10L));
+        now += SECOND;
+        assertThat(acquire("10.0.0.1", limit)).isZero();
+    }
+
+    @Test
+    void bucketWithoutRefillNeverRecovers() {
+        RateLimitProperties.Limit limit = limit(1, 0);
+        acquire("10.0.0.1", limit);
+
+        now += 3600 * SECOND;
+        assertThat(acquire("10.0.0.1", limit)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void keysAreIndependent() {
+        RateLimitProperties.Limit limit = limit(1, 1);
+
+        assertThat(limiter.tryAcquire(0, 'i', "10.0.0.1", limit)).isZero();
+        assertThat(limiter.tryAcquire(0, 'i', "10.0.0.1", limit)).isPositive();
+        assertThat(limiter.tryAcquire(0, 'i', "10.0.0.2", limit)).isZero();
+        assertThat(limiter.tryAcquire(1, 'i', "10.0.0.1", limit)).isZero();
+        assertThat(limiter.tryAcquire(0, 'u', "10.0.0.1", limit)).isZero();
+        assertThat(limiter.tryAcquire(TokenBucketRateLimiter.NO_ROUTE, 'a', "10.0.0.1", limit)).isZero();
+    }
+
+    @Test
+    void evictsIdleBucketsOnlyOnceTheyWouldHaveRefilled() {
+        properties.setIdleTimeout(Duration.ofSeconds(10));
+        acquire("fast", limit(10, 10));
+        acquire("slow", limit(10, 0.1));
+        assertThat(limiter.size()).isEqualTo(2);
+
+        now += 5 * SECOND;
+        limiter.evictIdle();
+        assertThat(limiter.size()).isEqualTo(2);
+
+        // idle past the timeout, but "slow" needs 100 s to refill
+        now += 10 * SECOND;
+        limiter.evictIdle();
+        assertThat(limiter.size()).isEqualTo(1);
+
+        now += 100 * SECOND;
+        limiter.evictIdle();
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void evictedBucketStartsFull() {
+        properties.setIdleTimeout(Duration.ofSeconds(1));
+        RateLimitProperties.Limit limit = limit(2, 1);
+        drain("10.0.0.1", limit, 2);
+
+        now += 5 * SECOND;
+        limiter.evictIdle();
+        drain("10.0.0.1", limit, 2);
+        assertThat(acquire("10.0.0.1", limit)).isPositive();
+    }
+
+    @Test
+    void resetRefillsOnlyThatKey() {
+        RateLimitProperties.Limit limit = limit(2, 0);
+        drain("10.0.0.1", limit, 2);
+        drain("10.0.0.2", limit, 2);
+
+        limiter.reset(0, 'i', "10.0.0.1");
+
+        drain("10.0.0.1", limit, 2);
+        assertThat(acquire("10.0.0.2", limit)).isPositive();
+    }
+
+    private long acquire(String subject, RateLimitProperties.Limit limit) {
+        return limiter.tryAcquire(0, 'i', subject, limit);
+    }
+
+    private void drain(String subject, RateLimitProperties.Limit limit, int tokens) {
+        for (int i = 0; i < tokens; i++) {
+            assertThat(acquire(subject, limit)).as("token %d of %d", i + 1, tokens).isZero();
+        }
+    }
+
+    private static RateLimitProperties.Limit limit(int capacity, double refillPerSecond) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillPerSecond(refillPerSecond);
+        return limit;
+    }
+}
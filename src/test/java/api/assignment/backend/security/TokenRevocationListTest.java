@@ -0,0 +1,101 @@
+package api.assignment.backend.security;
+
+import api.assignment.backend.entity.RevokedToken;
+import api.assignment.backend.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenRevocationList revocations = new TokenRevocationList(repository, 1_000, 0.01);
+
+    @Test
+    void revokedIdsAreAlwaysRevoked() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < 1_000; i++) {
+            revocations.revoke("jti-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(revocations.isRevoked("jti-" + i)).as("jti-%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void unrelatedIdsAreNotRevoked() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < 1_000; i++) {
+            revocations.revoke("jti-" + i, expiresAt);
+        }
+
+        // filter hits are checked against the exact set, so there are no false positives at all
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(revocations.isRevoked(UUID.randomUUID().toString())).isFalse();
+        }
+        assertThat(revocations.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void ignoresTokensThatHaveAlreadyExpired() {
+        revocations.revoke("jti-old", Instant.now().minusSeconds(1));
+
+        assertThat(revocations.isRevoked("jti-old")).isFalse();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void reloadsRevocationsFromTheDatabase() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        when(repository.findAllByExpiresAtAfter(any())).thenReturn(List.of(
+                token("jti-a", expiresAt), token("jti-b", expiresAt)));
+
+        revocations.load();
+
+        assertThat(revocations.isRevoked("jti-a")).isTrue();
+        assertThat(revocations.isRevoked("jti-b")).isTrue();
+        assertThat(revocations.isRevoked("jti-c")).isFalse();
+    }
+
+    @Test
+    void purgeForgetsExpiredIdsButKeepsLiveOnes() throws InterruptedException {
+        revocations.revoke("jti-live", Instant.now().plus(Duration.ofHours(1)));
+        revocations.revoke("jti-short", Instant.now().plusMillis(50));
+        Thread.sleep(100);
+
+        revocations.purgeExpired();
+
+        assertThat(revocations.isRevoked("jti-live")).isTrue();
+        assertThat(revocations.isRevoked("jti-short")).isFalse();
+    }
+
+    @Test
+    void picksUpRevocationsMadeOnOtherNodes() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        revocations.loadRecent();
+        verify(repository, never()).findAllByRevokedAtAfterAndExpiresAtAfter(any(), any());
+
+        revocations.load();
+        when(repository.findAllByRevokedAtAfterAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(token("jti-elsewhere", expiresAt)));
+        revocations.loadRecent();
+
+        assertThat(revocations.isRevoked("jti-elsewhere")).isTrue();
+        assertThat(revocations.isRevoked("jti-c")).isFalse();
+    }
+
+    private static RevokedToken token(String tokenId, Instant expiresAt) {
+        return RevokedToken.builder().tokenId(tokenId).expiresAt(expiresAt).build();
+    }
+}
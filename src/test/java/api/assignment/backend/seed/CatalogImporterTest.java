@@ -0,0 +1,253 @@
+package api.assignment.backend.seed;
+
+import api.assignment.backend.entity.Enrollment;
+import api.assignment.backend.entity.Subtopic;
+import api.assignment.backend.entity.SubtopicProgress;
+import api.assignment.backend.event.CatalogChangedEvent;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.EnrollmentRepository;
+import api.assignment.backend.repository.SubtopicProgressRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import api.assignment.backend.repository.TopicRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the importer against an embedded PostgreSQL. Every test starts from {@link #BASE} plus a few
+ * enrollments and completions, then syncs an edited copy of it.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "seed.mode=off",
+        // small chunks so a failed import has committed rows to remove
+        "seed.chunk-size=2"
+})
+class CatalogImporterTest {
+
+    private static final String BASE = catalog(
+            course("c1",
+                    topic("t1", subtopic("s1", "one"), subtopic("s2", "two")),
+                    topic("t2", subtopic("s3", "three"))),
+            course("c2",
+                    topic("t3", subtopic("s4", "four"))));
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private CatalogImporter catalogImporter;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TopicRepository topicRepository;
+
+    @Autowired
+    private SubtopicRepository subtopicRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SubtopicProgressRepository progressRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start PostgreSQL", e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void loadBase() throws IOException {
+        jdbcTemplate.execute("truncate subtopic_progress, enrollments, subtopics, topics, courses");
+        CatalogImporter.Result result = catalogImporter.importCatalog(json(BASE));
+        assertThat(result.getInserted()).isEqualTo(9);
+        assertThat(result.toEvent().isFullReload()).isTrue();
+
+        enroll(1L, "c1");
+        enroll(1L, "c2");
+        enroll(2L, "c2");
+        complete(1L, "s2");
+        complete(1L, "s3");
+        complete(1L, "s4");
+        complete(2L, "s4");
+    }
+
+    @Test
+    void unchangedRowsAreSkipped() throws IOException {
+        String hash = subtopicRepository.findById("s1").orElseThrow().getContentHash();
+
+        CatalogImporter.Result result = catalogImporter.syncCatalog(json(BASE));
+
+        assertThat(result.hasChanges()).isFalse();
+        assertThat(result.getUnchanged()).isEqualTo(9);
+        assertThat(subtopicRepository.findById("s1").orElseThrow().getContentHash()).isEqualTo(hash);
+        assertThat(progressRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void updatedRowGetsANewHash() throws IOException {
+        String hash = subtopicRepository.findById("s2").orElseThrow().getContentHash();
+
+        CatalogImporter.Result result = catalogImporter.syncCatalog(json(catalog(
+                course("c1",
+                        topic("t1", subtopic("s1", "one"), subtopic("s2", "two, revised")),
+                        topic("t2", subtopic("s3", "three"))),
+                course("c2",
+                        topic("t3", subtopic("s4", "four"))))));
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getUnchanged()).isEqualTo(8);
+        Subtopic updated = subtopicRepository.findById("s2").orElseThrow();
+        assertThat(updated.getContent()).isEqualTo("two, revised");
+        assertThat(updated.getContentHash()).isNotEqualTo(hash);
+
+        CatalogChangedEvent event = result.toEvent();
+        assertThat(event.isFullReload()).isFalse();
+        assertThat(event.getChangedSubtopicIds()).containsExactly("s2");
+        assertThat(event.getChangedTopicIds()).isEmpty();
+        assertThat(event.getChangedCourseIds()).isEmpty();
+        assertThat(event.getDeletedSubtopicIds()).isEmpty();
+        assertThat(event.getAffectedCourseIds()).containsExactly("c1");
+    }
+
+    @Test
+    void subtopicMovedToAnotherCourseKeepsItsProgress() throws IOException {
+        CatalogImporter.Result result = catalogImporter.syncCatalog(json(catalog(
+                course("c1",
+                        topic("t1", subtopic("s1", "one")),
+                        topic("t2", subtopic("s3", "three"))),
+                course("c2",
+                        topic("t3", subtopic("s4", "four"), subtopic("s2", "two"))))));
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getDeleted()).isZero();
+        assertThat(subtopicRepository.findById("s2").orElseThrow().getTopic().getId()).isEqualTo("t3");
+        assertThat(progressRepository.findByUserIdAndSubtopicId(1L, "s2")).isPresent();
+
+        CatalogChangedEvent event = result.toEvent();
+        assertThat(event.getChangedSubtopicIds()).containsExactly("s2");
+        assertThat(event.getAffectedCourseIds()).containsExactlyInAnyOrder("c1", "c2");
+    }
+
+    @Test
+    void deletedSubtopicTakesItsProgressAlong() throws IOException {
+        CatalogImporter.Result result = catalogImporter.syncCatalog(json(catalog(
+                course("c1",
+                        topic("t1", subtopic("s1", "one"), subtopic("s2", "two")),
+                        topic("t2")),
+                course("c2",
+                        topic("t3", subtopic("s4", "four"))))));
+
+        assertThat(result.getDeleted()).isEqualTo(1);
+        assertThat(subtopicRepository.existsById("s3")).isFalse();
+        assertThat(progressRepository.findByUserIdAndSubtopicId(1L, "s3")).isEmpty();
+        assertThat(progressRepository.count()).isEqualTo(3);
+        assertThat(enrollmentRepository.count()).isEqualTo(3);
+
+        CatalogChangedEvent event = result.toEvent();
+        assertThat(event.getDeletedSubtopicIds()).containsExactly("s3");
+        assertThat(event.getChangedSubtopicIds()).isEmpty();
+        assertThat(event.getAffectedCourseIds()).containsExactly("c1");
+    }
+
+    @Test
+    void deletedCourseTakesItsEnrollmentsAndProgressAlong() throws IOException {
+        CatalogImporter.Result result = catalogImporter.syncCatalog(json(catalog(
+                course("c1",
+                        topic("t1", subtopic("s1", "one"), subtopic("s2", "two")),
+                        topic("t2", subtopic("s3", "three"))))));
+
+        assertThat(result.getDeleted()).isEqualTo(3);
+        assertThat(courseRepository.existsById("c2")).isFalse();
+        assertThat(topicRepository.existsById("t3")).isFalse();
+        assertThat(subtopicRepository.existsById("s4")).isFalse();
+        assertThat(enrollmentRepository.findAll()).extracting(Enrollment::getCourseId).containsExactly("c1");
+        assertThat(progressRepository.findAll()).extracting(SubtopicProgress::getSubtopicId)
+                .containsExactlyInAnyOrder("s2", "s3");
+
+        CatalogChangedEvent event = result.toEvent();
+        assertThat(event.getDeletedSubtopicIds()).containsExactly("s4");
+        assertThat(event.getAffectedCourseIds()).containsExactly("c2");
+    }
+
+    @Test
+    void failedImportRemovesEverythingItWrote() {
+        jdbcTemplate.execute("truncate courses, topics, subtopics");
+        // a subtopic without a title, after enough rows that some chunks were committed
+        String broken = catalog(
+                course("c1", topic("t1", subtopic("s1", "one"), subtopic("s2", "two"))),
+                course("c2", topic("t3", "{\"id\":\"s4\"}")));
+
+        assertThatThrownBy(() -> catalogImporter.importCatalog(json(broken))).isInstanceOf(IOException.class);
+
+        assertThat(courseRepository.count()).isZero();
+        assertThat(topicRepository.count()).isZero();
+        assertThat(subtopicRepository.count()).isZero();
+        // recorded against the rows of the failed import
+        assertThat(enrollmentRepository.count()).isZero();
+        assertThat(progressRepository.count()).isZero();
+    }
+
+    private void enroll(long userId, String courseId) {
+        enrollmentRepository.save(Enrollment.builder().userId(userId).courseId(courseId).build());
+    }
+
+    private void complete(long userId, String subtopicId) {
+        progressRepository.save(SubtopicProgress.builder().userId(userId).subtopicId(subtopicId).build());
+    }
+
+    private static InputStream json(String catalog) {
+        return new ByteArrayInputStream(catalog.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String catalog(String... courses) {
+        return "{\"courses\":[" + String.join(",", courses) + "]}";
+    }
+
+    private static String course(String id, String... topics) {
+        return "{\"id\":\"" + id + "\",\"title\":\"Course " + id + "\",\"description\":\"About " + id + "\","
+                + "\"topics\":[" + String.join(",", topics) + "]}";
+    }
+
+    private static String topic(String id, String... subtopics) {
+        return "{\"id\":\"" + id + "\",\"title\":\"Topic " + id + "\",\"subtopics\":["
+                + String.join(",", subtopics) + "]}";
+    }
+
+    private static String subtopic(String id, String content) {
+        return "{\"id\":\"" + id + "\",\"title\":\"Subtopic " + id + "\",\"content\":\"" + content + "\"}";
+    }
+}
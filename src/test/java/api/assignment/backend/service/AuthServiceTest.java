@@ -0,0 +1,111 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.auth.LoginRequest;
+import api.assignment.backend.dto.auth.LoginResponse;
+import api.assignment.backend.dto.auth.RegisterRequest;
+import api.assignment.backend.exception.TooManyRequestsException;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "seed.mode=off",
+        "rate-limit.login-per-account.capacity=3",
+        "rate-limit.login-per-account.refill-per-second=0"
+})
+class AuthServiceTest {
+
+    private static final String ATTACKER = "203.0.113.7";
+    private static final String OWNER = "198.51.100.20";
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private AuthService authService;
+
+    private String email;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start PostgreSQL", e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void register() {
+        email = "owner-" + System.nanoTime() + "@example.test";
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("password123");
+        authService.register(request).join();
+    }
+
+    @Test
+    void failuresFromOneAddressDontLockOutAnother() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> login("wrong", ATTACKER)).hasCauseInstanceOf(BadCredentialsException.class);
+        }
+        assertThatThrownBy(() -> login("wrong", ATTACKER)).isInstanceOf(TooManyRequestsException.class);
+        // the right password doesn't get through from the blocked address either
+        assertThatThrownBy(() -> login("password123", ATTACKER)).isInstanceOf(TooManyRequestsException.class);
+
+        assertThat(login("password123", OWNER).getToken()).isNotBlank();
+    }
+
+    @Test
+    void successfulLoginResetsTheCount() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> login("wrong", OWNER)).hasCauseInstanceOf(BadCredentialsException.class);
+            }
+            assertThat(login("password123", OWNER).getToken()).as("round %d", round).isNotBlank();
+        }
+    }
+
+    @Test
+    void addressesAreCountedPerAccount() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> login("wrong", ATTACKER)).isInstanceOf(CompletionException.class);
+        }
+
+        LoginRequest other = new LoginRequest();
+        other.setEmail("someone-else@example.test");
+        other.setPassword("wrong");
+        assertThatThrownBy(() -> authService.login(other, ATTACKER).join())
+                .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    private LoginResponse login(String password, String address) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return authService.login(request, address).join();
+    }
+}
@@ -0,0 +1,212 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.course.CourseDetailResponse;
+import api.assignment.backend.dto.course.CourseSummaryDto;
+import api.assignment.backend.dto.course.SubtopicDto;
+import api.assignment.backend.dto.course.TopicDto;
+import api.assignment.backend.dto.search.CourseSearchResult;
+import api.assignment.backend.dto.search.SearchMatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsCoursesTopicsAndSubtopics() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.addCourse("chemistry-101", "Chemistry", "Atoms and bonds");
+            writer.addTopic("atoms", "Atoms");
+            writer.addSubtopic("atoms-1", "Protons", "Positively charged.");
+            writer.addSubtopic("atoms-2", "Electrons", null);
+            writer.addTopic("empty", "Nothing here yet");
+            writer.addCourse("physics-101", "Physics", null);
+            writer.addTopic("motion", "Motion");
+            writer.addSubtopic("motion-1", "Velocity", "");
+            writer.finish("v42");
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertThat(snapshot.getCatalogVersion()).isEqualTo("v42");
+        assertThat(snapshot.courseCount()).isEqualTo(2);
+        assertThat(snapshot.topicCount()).isEqualTo(3);
+        assertThat(snapshot.subtopicCount()).isEqualTo(3);
+        assertThat(snapshot.sizeBytes()).isEqualTo(Files.size(file));
+        assertThat(snapshot.courseSummaries()).containsExactly(
+                new CourseSummaryDto("chemistry-101", "Chemistry", "Atoms and bonds", 2, 2),
+                new CourseSummaryDto("physics-101", "Physics", null, 1, 1));
+        assertThat(snapshot.findCourse("chemistry-101")).contains(new CourseDetailResponse(
+                "chemistry-101", "Chemistry", "Atoms and bonds", List.of(
+                        new TopicDto("atoms", "Atoms", List.of(
+                                new SubtopicDto("atoms-1", "Protons", "Positively charged."),
+                                new SubtopicDto("atoms-2", "Electrons", null))),
+                        new TopicDto("empty", "Nothing here yet", List.of()))));
+        // null and empty strings stay distinct
+        assertThat(snapshot.findCourse("physics-101")).contains(new CourseDetailResponse(
+                "physics-101", "Physics", null, List.of(
+                        new TopicDto("motion", "Motion", List.of(new SubtopicDto("motion-1", "Velocity", ""))))));
+
+        CourseOutline outline = snapshot.outline("chemistry-101");
+        assertThat(outline.subtopicIds()).containsExactly("atoms-1", "atoms-2");
+        assertThat(outline.topicCount()).isEqualTo(1);
+        assertThat(snapshot.outline("biology-101")).isNull();
+    }
+
+    @Test
+    void keepsNonAsciiTextAndSearchesIt() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.addCourse("deutsch", "Grüße aus München", "Ärger mit Umlauten 🙂");
+            writer.addTopic("kanji", "日本語の基礎");
+            writer.addSubtopic("kanji-1", "Éléments", "Straße und Fuß, naïve café");
+            writer.finish("ü-1");
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertThat(snapshot.getCatalogVersion()).isEqualTo("ü-1");
+        assertThat(snapshot.courseSummaries()).containsExactly(
+                new CourseSummaryDto("deutsch", "Grüße aus München", "Ärger mit Umlauten 🙂", 1, 1));
+        assertThat(snapshot.findCourse("deutsch").orElseThrow().getTopics().get(0).getSubtopics())
+                .containsExactly(new SubtopicDto("kanji-1", "Éléments", "Straße und Fuß, naïve café"));
+
+        // ASCII queries match raw bytes, others decode: both have to find text next to multi-byte characters
+        assertThat(snapshot.search("CAFE")).isEmpty();
+        assertThat(snapshot.search("CAFÉ")).singleElement()
+                .satisfies(result -> assertThat(result.getMatches()).extracting(SearchMatch::getSubtopicId)
+                        .containsExactly("kanji-1"));
+        assertThat(snapshot.search("caf")).extracting(CourseSearchResult::getCourseId).containsExactly("deutsch");
+        assertThat(snapshot.search("münchen")).singleElement()
+                .satisfies(result -> assertThat(result.getMatches())
+                        .containsExactly(new SearchMatch("course", null, null, null, "Grüße aus München")));
+        assertThat(snapshot.search("基礎")).singleElement()
+                .satisfies(result -> assertThat(result.getMatches()).extracting(SearchMatch::getType)
+                        .containsExactly("topic"));
+    }
+
+    @Test
+    void findsCoursesInStringOrderOfTheirIds() throws IOException {
+        // String.compareTo order, which is what the service sorts by: upper case first, "10" before "2"
+        List<String> ids = List.of("Zeta", "course-10", "course-2", "course-20", "éclair");
+        Path file = dir.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            for (String id : ids) {
+                writer.addCourse(id, "Title of " + id, null);
+            }
+            writer.finish("v1");
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertThat(snapshot.courseIds()).isEqualTo(ids);
+        for (String id : ids) {
+            assertThat(snapshot.findCourse(id)).get().extracting(CourseDetailResponse::getTitle)
+                    .isEqualTo("Title of " + id);
+        }
+        for (String missing : List.of("A", "course-1", "course-3", "zzz", "")) {
+            assertThat(snapshot.findCourse(missing)).as(missing).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsCoursesAddedOutOfOrder() throws IOException {
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(dir.resolve("catalog.snapshot"))) {
+            writer.addCourse("course-2", "Two", null);
+
+            assertThatThrownBy(() -> writer.addCourse("course-10", "Ten", null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("id order");
+            assertThatThrownBy(() -> writer.addCourse("course-2", "Again", null))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void emptyCatalogRoundTrips() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.finish("empty");
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertThat(snapshot.courseCount()).isZero();
+        assertThat(snapshot.courseIds()).isEmpty();
+        assertThat(snapshot.findCourse("anything")).isEmpty();
+        assertThat(snapshot.search("anything")).isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path file = writeSmallCatalog();
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 1);
+        }
+
+        assertThatThrownBy(() -> CatalogSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated or corrupt");
+    }
+
+    @Test
+    void rejectsFileCutOffInsideTheHeader() throws IOException {
+        Path file = writeSmallCatalog();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(10);
+        }
+
+        assertThatThrownBy(() -> CatalogSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a catalog snapshot");
+    }
+
+    @Test
+    void rejectsOtherFormatVersions() throws IOException {
+        Path file = writeSmallCatalog();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, CatalogSnapshot.FORMAT_VERSION + 1), 4);
+        }
+
+        assertThatThrownBy(() -> CatalogSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("has snapshot format " + (CatalogSnapshot.FORMAT_VERSION + 1))
+                .hasMessageContaining("expected " + CatalogSnapshot.FORMAT_VERSION);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path file = dir.resolve("not-a.snapshot");
+        Files.write(file, new byte[CatalogSnapshot.HEADER_SIZE * 2]);
+
+        assertThatThrownBy(() -> CatalogSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a catalog snapshot");
+    }
+
+    private Path writeSmallCatalog() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.addCourse("course-1", "One", "First");
+            writer.addTopic("topic-1", "Topic");
+            writer.addSubtopic("subtopic-1", "Subtopic", "Content");
+            writer.finish("v1");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,132 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.analytics.CourseFunnelResponse;
+import api.assignment.backend.dto.analytics.FunnelStepDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CourseFunnelTest {
+
+    private static final Instant ENROLLED = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final CourseOutline outline = new CourseOutline("c1",
+            List.of("s1", "s2", "s3"), List.of("One", "Two", "Three"),
+            List.of("t1", "t1", "t2"), List.of("Topic 1", "Topic 1", "Topic 2"));
+
+    @Test
+    void countsCompletionsAndDropOffPerStep() {
+        CourseFunnel funnel = new CourseFunnel(outline, ENROLLED);
+        funnel.addEnrollments(10);
+        funnel.addCompletions("s1", 8);
+        funnel.addCompletions("s2", 4);
+        funnel.addCompletions("s2", 1);
+        funnel.addCompletions("s3", 5);
+        // no longer part of the course
+        funnel.addCompletions("gone", 3);
+
+        CourseFunnelResponse view = funnel.view();
+
+        assertThat(view.getEnrollments()).isEqualTo(10);
+        assertThat(view.getSteps()).extracting(FunnelStepDto::getSubtopicId).containsExactly("s1", "s2", "s3");
+        assertThat(view.getSteps()).extracting(FunnelStepDto::getTopicId).containsExactly("t1", "t1", "t2");
+        assertThat(view.getSteps()).extracting(FunnelStepDto::getCompletions).containsExactly(8L, 5L, 5L);
+        assertThat(view.getSteps()).extracting(FunnelStepDto::getDropOff).containsExactly(2L, 3L, 0L);
+        assertThat(view.getSteps()).extracting(FunnelStepDto::getDropOffRate).containsExactly(20.0, 37.5, 0.0);
+    }
+
+    @Test
+    void viewIsRebuiltAfterAChange() {
+        CourseFunnel funnel = new CourseFunnel(outline, ENROLLED);
+        funnel.addEnrollments(1);
+        assertThat(funnel.view()).isSameAs(funnel.view());
+
+        CourseFunnelResponse before = funnel.view();
+        funnel.addEnrollments(1);
+
+        assertThat(funnel.view()).isNotSameAs(before);
+        assertThat(funnel.view().getEnrollments()).isEqualTo(2);
+    }
+
+    @Test
+    void medianIsExactForShortDurations() {
+        CourseFunnel funnel = new CourseFunnel(outline, ENROLLED);
+        assertThat(funnel.view().getMedianSecondsToComplete()).isNull();
+
+        complete(funnel, 20);
+        complete(funnel, 3);
+        complete(funnel, 9);
+        assertThat(funnel.view().getMedianSecondsToComplete()).isEqualTo(9);
+        assertThat(funnel.view().getCourseCompletions()).isEqualTo(3);
+
+        complete(funnel, 30);
+        assertThat(funnel.view().getMedianSecondsToComplete()).isEqualTo((9 + 20) / 2);
+    }
+
+    @Test
+    void completedBeforeEnrollingCountsAsZero() {
+        CourseFunnel funnel = new CourseFunnel(outline, ENROLLED);
+        funnel.recordCourseCompletion(ENROLLED, ENROLLED.minusSeconds(60));
+
+        assertThat(funnel.view().getMedianSecondsToComplete()).isZero();
+    }
+
+    @Test
+    void medianOfLongDurationsIsWithinThreePercent() {
+        Random random = new Random(42);
+        CourseFunnel funnel = new CourseFunnel(outline, ENROLLED);
+        long[] seconds = new long[10_001];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = Duration.ofHours(1).toSeconds() + (long) (random.nextDouble() * Duration.ofDays(30).toSeconds());
+            complete(funnel, seconds[i]);
+        }
+        Arrays.sort(seconds);
+        long exact = seconds[seconds.length / 2];
+
+        assertThat((double) funnel.view().getMedianSecondsToComplete()).isCloseTo(exact, within(exact * 0.03));
+    }
+
+    @Test
+    void sameDataInAnyOrderHasTheSameAggregates() {
+        CourseFunnel forward = new CourseFunnel(outline, ENROLLED);
+        CourseFunnel backward = new CourseFunnel(outline, ENROLLED);
+        for (int i = 0; i < 100; i++) {
+            complete(forward, i * 997L);
+            complete(backward, (99 - i) * 997L);
+        }
+        forward.addEnrollments(100);
+        backward.addEnrollments(100);
+
+        assertThat(forward.sameAggregates(backward)).isTrue();
+
+        complete(backward, 5);
+        assertThat(forward.sameAggregates(backward)).isFalse();
+    }
+
+    @Test
+    void bucketsAreOrderedBoundedAndClose() {
+        assertThat(CourseFunnel.bucketOf(Long.MAX_VALUE)).isLessThan(1_900);
+        int previous = -1;
+        for (long seconds = 0; seconds < 5_000_000; seconds += 1 + seconds / 50) {
+            int bucket = CourseFunnel.bucketOf(seconds);
+            assertThat(bucket).isGreaterThanOrEqualTo(previous);
+            previous = bucket;
+            assertThat((double) CourseFunnel.midpointOf(bucket)).as("%d s", seconds)
+                    .isCloseTo(seconds, within(Math.max(0.0, seconds / 32.0)));
+        }
+        for (long seconds = 0; seconds < 32; seconds++) {
+            assertThat(CourseFunnel.midpointOf(CourseFunnel.bucketOf(seconds))).isEqualTo(seconds);
+        }
+    }
+
+    private static void complete(CourseFunnel funnel, long seconds) {
+        funnel.recordCourseCompletion(ENROLLED, ENROLLED.plusSeconds(seconds));
+    }
+}
@@ -0,0 +1,143 @@
+package api.assignment.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTreeTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final LeaderboardTree tree = new LeaderboardTree();
+
+    @Test
+    void ranksByCompletedThenByWhoGotThereFirst() {
+        tree.record(1, 3, T0.plusSeconds(30));
+        tree.record(2, 5, T0.plusSeconds(50));
+        tree.record(3, 3, T0.plusSeconds(10));
+        tree.record(4, 1, T0);
+
+        assertThat(userIds(tree.top(10))).containsExactly(2L, 3L, 1L, 4L);
+        assertThat(tree.rankOf(2)).isEqualTo(1);
+        assertThat(tree.rankOf(3)).isEqualTo(2);
+        assertThat(tree.rankOf(1)).isEqualTo(3);
+        assertThat(tree.rankOf(4)).isEqualTo(4);
+        assertThat(tree.size()).isEqualTo(4);
+    }
+
+    @Test
+    void breaksFullTiesByUserId() {
+        tree.record(9, 2, T0);
+        tree.record(7, 2, T0);
+        tree.record(8, 2, T0);
+
+        assertThat(userIds(tree.top(3))).containsExactly(7L, 8L, 9L);
+        assertThat(tree.rankOf(7)).isEqualTo(1);
+        assertThat(tree.rankOf(8)).isEqualTo(2);
+        assertThat(tree.rankOf(9)).isEqualTo(3);
+    }
+
+    @Test
+    void topIsLimitedAndUnknownUsersHaveNoRank() {
+        for (long user = 1; user <= 5; user++) {
+            tree.record(user, (int) user, T0);
+        }
+
+        assertThat(userIds(tree.top(2))).containsExactly(5L, 4L);
+        assertThat(tree.top(0)).isEmpty();
+        assertThat(tree.top(100)).hasSize(5);
+        assertThat(tree.rankOf(42)).isZero();
+        assertThat(tree.entryOf(42)).isNull();
+    }
+
+    @Test
+    void updateMovesTheUserAndIgnoresStaleCounts() {
+        tree.record(1, 2, T0);
+        tree.record(2, 4, T0);
+        tree.record(3, 3, T0);
+
+        tree.record(1, 5, T0.plusSeconds(60));
+        assertThat(userIds(tree.top(3))).containsExactly(1L, 2L, 3L);
+        assertThat(tree.entryOf(1).completed).isEqualTo(5);
+
+        // a replayed or out-of-order event doesn't move the user back
+        tree.record(1, 4, T0.plusSeconds(120));
+        tree.record(1, 5, T0.plusSeconds(180));
+        assertThat(tree.entryOf(1).reachedAt).isEqualTo(T0.plusSeconds(60));
+        assertThat(tree.rankOf(1)).isEqualTo(1);
+        assertThat(tree.size()).isEqualTo(3);
+    }
+
+    @Test
+    void updateIntoATieRanksBehindWhoeverGotThereFirst() {
+        tree.record(1, 4, T0.plusSeconds(10));
+        tree.record(2, 3, T0);
+
+        tree.record(2, 4, T0.plusSeconds(20));
+
+        assertThat(userIds(tree.top(2))).containsExactly(1L, 2L);
+        assertThat(tree.rankOf(2)).isEqualTo(2);
+    }
+
+    @Test
+    void removeClosesTheGap() {
+        tree.record(1, 5, T0);
+        tree.record(2, 4, T0);
+        tree.record(3, 4, T0.plusSeconds(1));
+        tree.record(4, 1, T0);
+
+        assertThat(tree.remove(2)).isTrue();
+        assertThat(tree.remove(2)).isFalse();
+
+        assertThat(userIds(tree.top(10))).containsExactly(1L, 3L, 4L);
+        assertThat(tree.rankOf(3)).isEqualTo(2);
+        assertThat(tree.rankOf(2)).isZero();
+        assertThat(tree.size()).isEqualTo(3);
+
+        tree.record(2, 1, T0.plusSeconds(5));
+        assertThat(userIds(tree.top(10))).containsExactly(1L, 3L, 4L, 2L);
+    }
+
+    @Test
+    void matchesASortedListUnderRandomChanges() {
+        Random random = new Random(42);
+        Map<Long, int[]> expected = new HashMap<>();
+        for (int step = 0; step < 5_000; step++) {
+            long user = random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                assertThat(tree.remove(user)).isEqualTo(expected.remove(user) != null);
+                continue;
+            }
+            int completed = random.nextInt(20);
+            int second = random.nextInt(50);
+            tree.record(user, completed, T0.plusSeconds(second));
+            int[] current = expected.get(user);
+            if (current == null || current[0] < completed) {
+                expected.put(user, new int[]{completed, second});
+            }
+        }
+
+        List<Long> order = new ArrayList<>(expected.keySet());
+        order.sort(Comparator.<Long>comparingInt(u -> -expected.get(u)[0])
+                .thenComparingInt(u -> expected.get(u)[1])
+                .thenComparing(Comparator.naturalOrder()));
+
+        assertThat(tree.size()).isEqualTo(order.size());
+        assertThat(userIds(tree.top(order.size()))).isEqualTo(order);
+        for (int i = 0; i < order.size(); i++) {
+            assertThat(tree.rankOf(order.get(i))).isEqualTo(i + 1);
+        }
+    }
+
+    private static List<Long> userIds(List<LeaderboardTree.Node> nodes) {
+        return nodes.stream().map(n -> n.userId).toList();
+    }
+}
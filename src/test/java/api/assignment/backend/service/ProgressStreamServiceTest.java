@@ -0,0 +1,259 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.progress.ProgressDelta;
+import api.assignment.backend.dto.progress.SubtopicCompletedDelta;
+import api.assignment.backend.dto.progress.TopicCompletedDelta;
+import api.assignment.backend.entity.Enrollment;
+import api.assignment.backend.event.SubtopicCompletedEvent;
+import api.assignment.backend.repository.EnrollmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscribers get {@link RecordingEmitter}s, which note each event they are sent as e.g. "s3",
+ * "t3" or "p3" (subtopic-completed, topic-completed or progress of the third completion) and can
+ * be told to block or fail.
+ */
+class ProgressStreamServiceTest {
+
+    private static final long USER = 7L;
+    private static final long ENROLLMENT = 11L;
+
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private Supplier<RecordingEmitter> nextEmitter = RecordingEmitter::new;
+    private ProgressStreamService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void deliversEveryDeltaInOrder() {
+        start(64, 2);
+        RecordingEmitter first = subscribe();
+        RecordingEmitter second = subscribe();
+
+        complete(1, 2);
+        complete(2, 2);
+
+        List<String> expected = List.of("s1", "p1", "s2", "t2", "p2");
+        awaitEvents(first, expected.size());
+        awaitEvents(second, expected.size());
+        assertThat(first.events).containsExactlyElementsOf(expected);
+        assertThat(second.events).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void fullBufferDropsTheOldestDeltas() throws InterruptedException {
+        start(4, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        nextEmitter = () -> new RecordingEmitter(release);
+        RecordingEmitter slow = subscribe();
+
+        complete(1, 0);
+        // s1 is now being sent, p1 waits in the buffer
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 5; i++) {
+            complete(i, 0);
+        }
+        release.countDown();
+
+        awaitEvents(slow, 5);
+        Thread.sleep(100);
+        assertThat(slow.events).containsExactly("s1", "s4", "p4", "s5", "p5");
+    }
+
+    @Test
+    void slowSubscriberGetsItsDeltasInOrderWithoutHoldingUpOthers() throws InterruptedException {
+        start(1_000, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        nextEmitter = () -> new RecordingEmitter(release);
+        RecordingEmitter slow = subscribe();
+        nextEmitter = RecordingEmitter::new;
+        RecordingEmitter fast = subscribe();
+
+        for (int i = 1; i <= 50; i++) {
+            complete(i, 0);
+        }
+        List<String> expected = IntStream.rangeClosed(1, 50)
+                .boxed()
+                .flatMap(i -> List.of("s" + i, "p" + i).stream())
+                .toList();
+
+        awaitEvents(fast, expected.size());
+        assertThat(fast.events).containsExactlyElementsOf(expected);
+        assertThat(slow.events).isEmpty();
+
+        release.countDown();
+        awaitEvents(slow, expected.size());
+        assertThat(slow.events).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void failedSendRemovesTheSubscriber() throws InterruptedException {
+        start(16, 1);
+        nextEmitter = () -> new RecordingEmitter(new IOException("Broken pipe"));
+        RecordingEmitter broken = subscribe();
+        nextEmitter = RecordingEmitter::new;
+        RecordingEmitter healthy = subscribe();
+
+        complete(1, 0);
+        awaitEvents(healthy, 2);
+        complete(2, 0);
+        awaitEvents(healthy, 4);
+        Thread.sleep(100);
+
+        // one attempt, then the subscriber is gone for good
+        assertThat(broken.attempts).isEqualTo(1);
+        assertThat(broken.failure).isInstanceOf(IOException.class);
+        assertThat(healthy.events).containsExactly("s1", "p1", "s2", "p2");
+    }
+
+    @Test
+    void subscriberIsRemovedWhenItsStreamEnds() throws InterruptedException {
+        start(16, 1);
+        RecordingEmitter completed = subscribe();
+        RecordingEmitter timedOut = subscribe();
+        RecordingEmitter errored = subscribe();
+        RecordingEmitter open = subscribe();
+
+        completed.completionCallback.run();
+        timedOut.timeoutCallback.run();
+        errored.errorCallback.accept(new IOException("Connection reset"));
+        complete(1, 0);
+        awaitEvents(open, 2);
+        Thread.sleep(100);
+
+        assertThat(completed.attempts + timedOut.attempts + errored.attempts).isZero();
+    }
+
+    private void start(int bufferSize, int dispatcherThreads) {
+        when(enrollmentRepository.findById(ENROLLMENT)).thenReturn(Optional.of(
+                Enrollment.builder().id(ENROLLMENT).userId(USER).courseId("c1").build()));
+        service = new ProgressStreamService(enrollmentRepository, bufferSize, Duration.ofMinutes(1),
+                dispatcherThreads, timeout -> nextEmitter.get());
+    }
+
+    private RecordingEmitter subscribe() {
+        return (RecordingEmitter) service.subscribe(USER, ENROLLMENT);
+    }
+
+    // the n-th completion; completes its topic when topicTotal is n
+    private void complete(int n, int topicTotal) {
+        service.onSubtopicCompleted(new SubtopicCompletedEvent(ENROLLMENT, USER, "c1", "t" + n, "s" + n,
+                Instant.EPOCH, Instant.EPOCH.plusSeconds(n), n, topicTotal, n, 100));
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.events.size() < count) {
+            assertThat(System.nanoTime()).as("%d events within 5s, got %s", count, emitter.events)
+                    .isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final IOException sendFailure;
+        private volatile int attempts;
+        private volatile Throwable failure;
+        private Runnable completionCallback;
+        private Runnable timeoutCallback;
+        private Consumer<Throwable> errorCallback;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0), null);
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this(release, null);
+        }
+
+        RecordingEmitter(IOException sendFailure) {
+            this(new CountDownLatch(0), sendFailure);
+        }
+
+        private RecordingEmitter(CountDownLatch release, IOException sendFailure) {
+            this.release = release;
+            this.sendFailure = sendFailure;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            attempts++;
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (sendFailure != null) {
+                throw sendFailure;
+            }
+            events.add(describe(items));
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failure = ex;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            timeoutCallback = callback;
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            errorCallback = callback;
+        }
+
+        // an event is its "event:"/"data:" text lines plus the payload object
+        private static String describe(Set<DataWithMediaType> items) {
+            Object payload = items.stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String))
+                    .findFirst()
+                    .orElseThrow();
+            if (payload instanceof SubtopicCompletedDelta delta) {
+                return delta.getSubtopicId();
+            }
+            if (payload instanceof TopicCompletedDelta delta) {
+                return delta.getTopicId();
+            }
+            return "p" + ((ProgressDelta) payload).getCompletedSubtopics();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.entity.RefreshToken;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.repository.RefreshTokenRepository;
+import api.assignment.backend.repository.UserRepository;
+import api.assignment.backend.security.AuthenticatedUser;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "seed.mode=off"
+})
+class RefreshTokenServiceTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start PostgreSQL", e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("refresh").email("refresh-" + System.nanoTime() + "@example.test").password("x").build());
+    }
+
+    @Test
+    void rotationReplacesTheTokenWithinItsFamily() {
+        String first = refreshTokenService.issue(user).token();
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertThat(rotation.user().getId()).isEqualTo(user.getId());
+        assertThat(rotation.refreshToken().token()).isNotEqualTo(first);
+        List<RefreshToken> family = tokensOf(user);
+        assertThat(family).hasSize(2).extracting(RefreshToken::getFamilyId).containsOnly(family.get(0).getFamilyId());
+        assertThat(family).filteredOn(token -> token.getRevokedAt() == null).hasSize(1);
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(user).token();
+        String second = refreshTokenService.rotate(first).refreshToken().token();
+        String otherLogin = refreshTokenService.issue(user).token();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(BadCredentialsException.class);
+
+        // the legitimate holder of the successor is logged out too
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).isInstanceOf(BadCredentialsException.class);
+        // a different login of the same user is a different family
+        assertThat(refreshTokenService.rotate(otherLogin).refreshToken().token()).isNotBlank();
+    }
+
+    @Test
+    void concurrentRotationsOfOneTokenIssueOneSuccessor() throws Exception {
+        String token = refreshTokenService.issue(user).token();
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<CompletableFuture<RefreshTokenService.Rotation>> rotations = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                rotations.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return refreshTokenService.rotate(token);
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(rotations.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(rotations).filteredOn(rotation -> !rotation.isCompletedExceptionally()).hasSize(1);
+        // the losers count as reuse, so nothing in the family is usable any more
+        assertThat(tokensOf(user)).hasSize(2).allMatch(stored -> stored.getRevokedAt() != null);
+    }
+
+    @Test
+    void logoutAllInvalidatesEveryRefreshToken() {
+        String phone = refreshTokenService.issue(user).token();
+        String laptop = refreshTokenService.issue(user).token();
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(user.getId(), user.getEmail(),
+                user.getSecurityStamp(), user.getRole(), "jti-logout-all", Instant.now().plusSeconds(60));
+
+        authService.logoutAll(principal);
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getSecurityStamp())
+                .isNotEqualTo(user.getSecurityStamp());
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone)).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(laptop)).isInstanceOf(BadCredentialsException.class);
+        assertThat(tokensOf(user)).allMatch(stored -> stored.getRevokedAt() != null);
+    }
+
+    @Test
+    void logoutRevokesTheFamily() {
+        String first = refreshTokenService.issue(user).token();
+        String second = refreshTokenService.rotate(first).refreshToken().token();
+
+        refreshTokenService.revoke(second);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).isInstanceOf(BadCredentialsException.class);
+        assertThat(tokensOf(user)).allMatch(stored -> stored.getRevokedAt() != null);
+    }
+
+    private List<RefreshToken> tokensOf(User owner) {
+        return refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUserId().equals(owner.getId()))
+                .toList();
+    }
+}
@@ -0,0 +1,227 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.repository.SubtopicRepository.SearchDocumentRow;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the pipeline against a mocked client whose bulk responses are scripted per document:
+ * each call gets the next status from that document's list (200 once the list runs out).
+ */
+class SearchIndexingPipelineTest {
+
+    private static final String INDEX = "test_index";
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Integer>> statuses = new ConcurrentHashMap<>();
+
+    @Test
+    void retriesOnlyTheItemsRejectedWithARetryableStatus() throws IOException {
+        stubBulk();
+        statuses.put("s2", new ArrayList<>(List.of(429)));
+        statuses.put("s3", new ArrayList<>(List.of(400)));
+        statuses.put("s4", new ArrayList<>(List.of(503, 502)));
+
+        SearchIndexingPipeline.Stats stats = pipeline(10, 100, 3).run(INDEX, source(5));
+
+        assertThat(stats.documents()).isEqualTo(5);
+        assertThat(stats.indexed()).isEqualTo(4);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.retried()).isEqualTo(3);
+        assertThat(requests).containsExactly(
+                List.of("s1", "s2", "s3", "s4", "s5"),
+                List.of("s2", "s4"),
+                List.of("s4"));
+    }
+
+    @Test
+    void resendsTheWholeBatchWhenTheRequestFails() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        when(client.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            if (calls.getAndIncrement() == 0) {
+                throw new IOException("connection reset");
+            }
+            return respond(request);
+        });
+
+        SearchIndexingPipeline.Stats stats = pipeline(10, 100, 3).run(INDEX, source(3));
+
+        assertThat(stats.indexed()).isEqualTo(3);
+        assertThat(stats.failed()).isZero();
+        assertThat(stats.retried()).isEqualTo(3);
+        assertThat(requests).containsExactly(List.of("s1", "s2", "s3"));
+    }
+
+    @Test
+    void givesUpAfterMaxRetriesWithExponentialBackoff() throws IOException {
+        stubBulk();
+        statuses.put("s1", new ArrayList<>(List.of(503, 503, 503, 503, 503)));
+
+        long start = System.nanoTime();
+        SearchIndexingPipeline.Stats stats = pipeline(10, 100, 3).run(INDEX, source(2));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(stats.indexed()).isEqualTo(1);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.retried()).isEqualTo(3);
+        assertThat(requests).hasSize(4);
+        // 20 + 40 + 80 ms
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(140);
+    }
+
+    @Test
+    void cutsBatchesByDocumentCount() throws IOException {
+        stubBulk();
+
+        SearchIndexingPipeline.Stats stats = pipeline(3, 2, 0).run(INDEX, source(5));
+
+        assertThat(stats.batches()).isEqualTo(3);
+        assertThat(stats.indexed()).isEqualTo(5);
+        assertThat(requests).allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(2));
+        assertThat(requests.stream().flatMap(List::stream)).containsExactlyInAnyOrder("s1", "s2", "s3", "s4", "s5");
+    }
+
+    @Test
+    void readerWaitsForASlowCluster() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            release.await();
+            return respond(invocation.getArgument(0));
+        });
+        AtomicInteger pagesRead = new AtomicInteger();
+        SearchIndexingPipeline.DocumentSource source = source(100);
+        SearchIndexingPipeline.DocumentSource counting = (afterId, limit) -> {
+            pagesRead.incrementAndGet();
+            return source.page(afterId, limit);
+        };
+
+        Thread runner = new Thread(() -> pipeline(1, 1, 0, 1, 1).run(INDEX, counting));
+        runner.start();
+        Thread.sleep(500);
+
+        // one page at the sender, one per queue, one held by each of the builder and the reader
+        assertThat(pagesRead.get()).isLessThanOrEqualTo(5);
+
+        release.countDown();
+        runner.join(10_000);
+        assertThat(runner.isAlive()).isFalse();
+        assertThat(requests).hasSize(100);
+    }
+
+    @Test
+    void sourceFailureFailsTheRun() {
+        SearchIndexingPipeline.DocumentSource failing = (afterId, limit) -> {
+            throw new IllegalStateException("database gone");
+        };
+
+        assertThatThrownBy(() -> pipeline(10, 100, 0).run(INDEX, failing))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("database gone");
+    }
+
+    private SearchIndexingPipeline pipeline(int pageSize, int maxBatchDocuments, int maxRetries) {
+        return pipeline(pageSize, maxBatchDocuments, maxRetries, 2, 4);
+    }
+
+    private SearchIndexingPipeline pipeline(int pageSize, int maxBatchDocuments, int maxRetries,
+                                            int senders, int queueCapacity) {
+        return new SearchIndexingPipeline(client, new SimpleMeterRegistry(), pageSize, senders, queueCapacity,
+                5 * 1024 * 1024, maxBatchDocuments, maxRetries, Duration.ofMillis(20));
+    }
+
+    private void stubBulk() throws IOException {
+        when(client.bulk(any(BulkRequest.class))).thenAnswer(invocation -> respond(invocation.getArgument(0)));
+    }
+
+    private BulkResponse respond(BulkRequest request) {
+        List<String> ids = request.operations().stream().map(SearchIndexingPipelineTest::idOf).toList();
+        requests.add(ids);
+        List<BulkResponseItem> items = new ArrayList<>();
+        boolean errors = false;
+        for (String id : ids) {
+            List<Integer> scripted = statuses.get(id);
+            int status = scripted == null || scripted.isEmpty() ? 200 : scripted.remove(0);
+            errors |= status != 200;
+            items.add(BulkResponseItem.of(item -> {
+                item.operationType(OperationType.Index).index(INDEX).id(id).status(status);
+                if (status != 200) {
+                    item.error(error -> error.type("test").reason("status " + status));
+                }
+                return item;
+            }));
+        }
+        boolean anyErrors = errors;
+        return BulkResponse.of(response -> response.errors(anyErrors).took(1).items(items));
+    }
+
+    private static String idOf(BulkOperation operation) {
+        return operation.index().id();
+    }
+
+    private static SearchIndexingPipeline.DocumentSource source(int count) {
+        List<SearchDocumentRow> rows = IntStream.rangeClosed(1, count)
+                .mapToObj(i -> (SearchDocumentRow) new Row(String.format("s%d", i)))
+                .sorted((a, b) -> a.getSubtopicId().compareTo(b.getSubtopicId()))
+                .toList();
+        return (afterId, limit) -> rows.stream()
+                .filter(row -> row.getSubtopicId().compareTo(afterId) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    private record Row(String subtopicId) implements SearchDocumentRow {
+        public String getSubtopicId() {
+            return subtopicId;
+        }
+
+        public String getSubtopicTitle() {
+            return "Title " + subtopicId;
+        }
+
+        public String getContent() {
+            return "Content of " + subtopicId;
+        }
+
+        public String getTopicTitle() {
+            return "Topic";
+        }
+
+        public String getCourseId() {
+            return "c1";
+        }
+
+        public String getCourseTitle() {
+            return "Course";
+        }
+
+        public String getCourseDescription() {
+            return "About the course";
+        }
+    }
+}
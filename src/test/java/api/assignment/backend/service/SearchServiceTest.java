@@ -0,0 +1,125 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.exception.ServiceUnavailableException;
+import api.assignment.backend.repository.CourseRepository;
+import api.assignment.backend.repository.SubtopicRepository;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private static final SearchIndexingPipeline.Stats INDEXED = new SearchIndexingPipeline.Stats(1, 1, 0, 0, 1, 1);
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final ElasticsearchIndicesClient indices = mock(ElasticsearchIndicesClient.class);
+    private final SearchIndexingPipeline pipeline = mock(SearchIndexingPipeline.class);
+    private final SearchService searchService = new SearchService(client, mock(CourseRepository.class),
+            mock(SubtopicRepository.class), pipeline, mock(CatalogSnapshotService.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), false);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void stubIndices() throws IOException {
+        when(client.indices()).thenReturn(indices);
+        // no index yet, so startup builds one
+        when(indices.exists(any(Function.class))).thenReturn(new BooleanResponse(false));
+    }
+
+    @Test
+    void failedRebuildKeepsAReachableClusterAndRetriesIt() throws IOException {
+        when(client.ping()).thenReturn(new BooleanResponse(true));
+        when(pipeline.run(eq("course_content"), any()))
+                .thenThrow(new IllegalStateException("bulk rejected"))
+                .thenReturn(INDEXED);
+        searchService.connectElasticsearch();
+
+        assertThatThrownBy(searchService::prepareIndex).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(searchService.isIndexReady()).isFalse();
+
+        searchService.reconnect();
+
+        assertThat(searchService.isIndexReady()).isTrue();
+        verify(pipeline, times(2)).run(eq("course_content"), any());
+    }
+
+    @Test
+    void unreachableClusterIsPingedUntilItAnswers() throws IOException {
+        when(client.ping())
+                .thenThrow(new ConnectException("refused"))
+                .thenThrow(new ConnectException("refused"))
+                .thenReturn(new BooleanResponse(true));
+        when(pipeline.run(eq("course_content"), any())).thenReturn(INDEXED);
+        searchService.connectElasticsearch();
+        searchService.prepareIndex();
+        assertThat(searchService.isIndexReady()).isFalse();
+
+        searchService.reconnect();
+        assertThat(searchService.isIndexReady()).isFalse();
+        verify(pipeline, never()).run(any(), any());
+
+        searchService.reconnect();
+        assertThat(searchService.isIndexReady()).isTrue();
+        verify(pipeline).run(eq("course_content"), any());
+    }
+
+    @Test
+    void clusterLostDuringARebuildIsMarkedUnavailable() throws IOException {
+        when(client.ping())
+                .thenReturn(new BooleanResponse(true))
+                .thenThrow(new ConnectException("refused"))
+                .thenThrow(new ConnectException("refused"))
+                .thenReturn(new BooleanResponse(true));
+        when(pipeline.run(eq("course_content"), any()))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(INDEXED);
+        searchService.connectElasticsearch();
+        assertThatThrownBy(searchService::prepareIndex).isInstanceOf(ServiceUnavailableException.class);
+
+        assertThatThrownBy(searchService::reindexAll).isInstanceOf(ServiceUnavailableException.class);
+
+        // the admin reindex pings again rather than trusting the earlier failure
+        assertThat(searchService.reindexAll()).isEqualTo(INDEXED);
+        assertThat(searchService.isIndexReady()).isTrue();
+    }
+
+    @Test
+    void reconnectWaitsForTheStartupTasks() throws IOException {
+        when(client.ping()).thenReturn(new BooleanResponse(true));
+
+        searchService.reconnect();
+
+        verify(client, never()).ping();
+        verify(pipeline, never()).run(any(), any());
+    }
+
+    @Test
+    void reconnectLeavesAReadyIndexAlone() throws IOException {
+        when(client.ping()).thenReturn(new BooleanResponse(true));
+        when(pipeline.run(eq("course_content"), any())).thenReturn(INDEXED);
+        searchService.connectElasticsearch();
+        searchService.prepareIndex();
+
+        searchService.reconnect();
+
+        verify(pipeline, times(1)).run(any(), any());
+    }
+}
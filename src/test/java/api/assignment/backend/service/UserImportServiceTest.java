@@ -0,0 +1,205 @@
+package api.assignment.backend.service;
+
+import api.assignment.backend.dto.auth.LoginRequest;
+import api.assignment.backend.dto.auth.RegisterRequest;
+import api.assignment.backend.dto.user.UserImportResponse;
+import api.assignment.backend.dto.user.UserImportRowResult;
+import api.assignment.backend.dto.user.UserImportRowResult.Status;
+import api.assignment.backend.entity.User;
+import api.assignment.backend.exception.BadRequestException;
+import api.assignment.backend.repository.UserRepository;
+import api.assignment.backend.seed.UserSequenceAligner;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "elasticsearch.url=http://127.0.0.1:1",
+        "seed.mode=off",
+        // several chunks per sequence block, and one chunk that straddles two blocks
+        "admin.user-import.chunk-size=20"
+})
+class UserImportServiceTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSequenceAligner sequenceAligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start PostgreSQL", e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void clearUsers() {
+        jdbcTemplate.execute("truncate users cascade");
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasAndQuotes() {
+        UserImportResponse response = userImportService.importCsv(csv(
+                "\uFEFFName,Email,Password",
+                "\"Lovelace, Ada\",ada@example.test,\"pass,word\"",
+                "\"Grace \"\"Amazing\"\" Hopper\",grace@example.test,password123"));
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        User ada = userRepository.findByEmail("ada@example.test").orElseThrow();
+        assertThat(ada.getName()).isEqualTo("Lovelace, Ada");
+        assertThat(authService.login(login("ada@example.test", "pass,word"), "127.0.0.1").join().getToken())
+                .isNotBlank();
+        assertThat(userRepository.findByEmail("grace@example.test").orElseThrow().getName())
+                .isEqualTo("Grace \"Amazing\" Hopper");
+    }
+
+    @Test
+    void blankLinesAreSkippedAndDontCountAsRows() {
+        UserImportResponse response = userImportService.importCsv(csv(
+                "email,password",
+                "",
+                "one@example.test,password123",
+                "   ",
+                "",
+                "two@example.test,password123",
+                ""));
+
+        assertThat(response.getTotal()).isEqualTo(2);
+        assertThat(response.getRows()).extracting(UserImportRowResult::getRow).containsExactly(1, 2);
+        assertThat(response.getRows()).extracting(UserImportRowResult::getStatus)
+                .containsExactly(Status.CREATED, Status.CREATED);
+        // no name column: the local part of the email, like register
+        assertThat(userRepository.findByEmail("two@example.test").orElseThrow().getName()).isEqualTo("two");
+    }
+
+    @Test
+    void badRowsAreReportedAndTheRestImported() {
+        userImportService.importCsv(csv("email,password", "taken@example.test,password123"));
+
+        UserImportResponse response = userImportService.importCsv(csv(
+                "email,password,name",
+                "ok@example.test,password123,Ok",
+                "not-an-email,password123,Bad",
+                "nopass@example.test,,No password",
+                "\"unterminated@example.test,password123,Broken",
+                "ok@example.test,password123,Again",
+                "taken@example.test,password123,Taken",
+                "short@example.test",
+                " padded@example.test ,password123,Padded"));
+
+        assertThat(response.getTotal()).isEqualTo(8);
+        assertThat(response.getRows()).extracting(UserImportRowResult::getStatus).containsExactly(
+                Status.CREATED, Status.INVALID, Status.INVALID, Status.INVALID,
+                Status.DUPLICATE, Status.DUPLICATE, Status.INVALID, Status.CREATED);
+        assertThat(response.getRows().get(1).getMessage()).contains("email");
+        assertThat(response.getRows().get(2).getMessage()).contains("password");
+        assertThat(response.getRows().get(3).getMessage()).isEqualTo("Unterminated quoted field");
+        assertThat(response.getRows().get(4).getMessage()).isEqualTo("Email appears earlier in this upload");
+        assertThat(response.getRows().get(5).getMessage()).isEqualTo("Email already registered");
+        assertThat(response.getRows().get(7).getEmail()).isEqualTo("padded@example.test");
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getDuplicates()).isEqualTo(2);
+        assertThat(response.getInvalid()).isEqualTo(4);
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void unusableUploadsAreRejected() {
+        assertThatThrownBy(() -> userImportService.importCsv(csv()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("CSV upload is empty");
+        assertThatThrownBy(() -> userImportService.importCsv(csv("email,name", "a@example.test,A")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("'password'");
+        assertThatThrownBy(() -> userImportService.importCsv(csv("\"email,password", "a@example.test,x")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("CSV header is malformed");
+        assertThat(userRepository.count()).isZero();
+    }
+
+    @Test
+    void importAcrossSequenceBlocksThenRegisterGetsFreshIds() {
+        // rows written while ids came from an IDENTITY column, over every id the next blocks of
+        // users_seq would hand out to the import and the register below
+        long next = jdbcTemplate.queryForObject("select last_value from users_seq", Long.class) + 1;
+        List<Object[]> legacy = new ArrayList<>();
+        for (long id = next; id < next + 200; id++) {
+            legacy.add(new Object[]{id, "legacy", "legacy-" + id + "@example.test", "x"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email, password) values (?, ?, ?, ?)", legacy);
+        sequenceAligner.afterSingletonsInstantiated();
+
+        List<String> lines = new ArrayList<>(List.of("email,password"));
+        for (int i = 1; i <= 120; i++) {
+            lines.add("bulk-" + i + "@example.test,password123");
+        }
+        UserImportResponse response = userImportService.importCsv(csv(lines.toArray(String[]::new)));
+
+        assertThat(response.getCreated()).isEqualTo(120);
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("after-import@example.test");
+        request.setPassword("password123");
+        Long registered = authService.register(request).join().getId();
+
+        Set<Long> ids = new HashSet<>();
+        response.getRows().forEach(row -> ids.add(row.getUserId()));
+        ids.add(registered);
+        assertThat(ids).hasSize(121).noneMatch(id -> id >= next && id < next + 200);
+        assertThat(userRepository.count()).isEqualTo(321);
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package api.assignment.backend.sql;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * AssertJ assertions on the SQL a block of code runs, for catching N+1s in tests:
+ * <pre>
+ * assertThatSql(() -> courseService.getAllCourses())
+ *         .hasAtMostStatements(8)
+ *         .hasNoRepeatedStatements();
+ * </pre>
+ * Needs a context with {@code sql-budget.enabled} (the default); only statements run on the
+ * calling thread are seen.
+ */
+public class SqlAssert extends AbstractAssert<SqlAssert, SqlCapture> {
+
+    private SqlAssert(SqlCapture capture) {
+        super(capture, SqlAssert.class);
+    }
+
+    public static SqlAssert assertThatSql(Runnable action) {
+        try (SqlCapture capture = SqlCapture.start()) {
+            action.run();
+            return new SqlAssert(capture);
+        }
+    }
+
+    public SqlAssert hasStatementCount(int expected) {
+        if (actual.statements() != expected) {
+            failWithMessage("Expected %d SQL statements but %d ran:%s", expected, actual.statements(), list(actual.shapes()));
+        }
+        return this;
+    }
+
+    public SqlAssert hasAtMostStatements(int max) {
+        if (actual.statements() > max) {
+            failWithMessage("Expected at most %d SQL statements but %d ran:%s", max, actual.statements(), list(actual.shapes()));
+        }
+        return this;
+    }
+
+    /** No statement shape ran more than once. */
+    public SqlAssert hasNoRepeatedStatements() {
+        return hasNoStatementRepeatedMoreThan(1);
+    }
+
+    /** No statement shape ran more than {@code times} times. */
+    public SqlAssert hasNoStatementRepeatedMoreThan(int times) {
+        Map<String, Integer> repeated = actual.repeatedShapes(times + 1);
+        if (!repeated.isEmpty()) {
+            failWithMessage("Expected no SQL statement to run more than %d time(s), but:%s", times, list(repeated));
+        }
+        return this;
+    }
+
+    public SqlAssert hasJdbcTimeAtMost(Duration max) {
+        if (actual.jdbcTime().compareTo(max) > 0) {
+            failWithMessage("Expected at most %d ms of JDBC time but took %d ms", max.toMillis(), actual.jdbcTime().toMillis());
+        }
+        return this;
+    }
+
+    private static String list(Map<String, Integer> shapes) {
+        StringBuilder list = new StringBuilder();
+        shapes.forEach((shape, n) -> list.append("\n  ").append(n).append("x ").append(shape));
+        return list.toString();
+    }
+}
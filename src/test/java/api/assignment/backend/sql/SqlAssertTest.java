@@ -0,0 +1,56 @@
+package api.assignment.backend.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static api.assignment.backend.sql.SqlAssert.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlAssertTest {
+
+    private final SqlStatementInspector inspector = new SqlStatementInspector();
+
+    @Test
+    void countsStatementsAndCollapsesShapes() {
+        assertThatSql(() -> {
+            inspector.inspect("select c1_0.id from courses c1_0");
+            inspector.inspect("select t1_0.id from topics t1_0 where t1_0.course_id in (?,?,?)");
+            inspector.inspect("select t1_0.id from topics t1_0 where t1_0.course_id in (?, ?)");
+        })
+                .hasStatementCount(3)
+                .hasNoStatementRepeatedMoreThan(2);
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            inspector.inspect("select * from users where email = 'a@b.c' and id = 42");
+            inspector.inspect("select * from users  where email = 'x@y.z' and id = 7");
+            assertThat(capture.shapes()).containsExactly(
+                    Map.entry("select * from users where email = ? and id = ?", 2));
+        }
+    }
+
+    @Test
+    void reportsRepeatedStatements() {
+        assertThatThrownBy(() -> assertThatSql(() -> {
+            inspector.inspect("select c1_0.id from courses c1_0");
+            for (int i = 0; i < 5; i++) {
+                inspector.inspect("select t1_0.id from topics t1_0 where t1_0.course_id=?");
+            }
+        }).hasNoRepeatedStatements())
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("5x select t1_0.id from topics t1_0 where t1_0.course_id=?");
+    }
+
+    @Test
+    void nestedCapturesAddUpToTheOuterOne() {
+        try (SqlCapture outer = SqlCapture.start()) {
+            inspector.inspect("select 1");
+            assertThatSql(() -> inspector.inspect("select 2")).hasStatementCount(1);
+            assertThat(outer.statements()).isEqualTo(2);
+        }
+        // nothing is counted once every capture is closed
+        assertThat(SqlCapture.current()).isNull();
+        assertThat(inspector.inspect("select 3")).isEqualTo("select 3");
+    }
+}